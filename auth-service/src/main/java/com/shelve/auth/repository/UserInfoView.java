@@ -0,0 +1,12 @@
+package com.shelve.auth.repository;
+
+import java.util.UUID;
+
+/**
+ * Public identity columns of a user; lets lookups skip the password hash and profile fields.
+ */
+public interface UserInfoView {
+    UUID getId();
+    String getName();
+    String getEmail();
+}
@@ -4,6 +4,7 @@ import com.shelve.auth.dto.*;
 import com.shelve.auth.entity.User;
 import com.shelve.auth.exception.UserAlreadyExistsException;
 import com.shelve.auth.exception.UserNotFoundException;
+import com.shelve.auth.repository.UserInfoView;
 import com.shelve.auth.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -138,7 +139,7 @@ public class AuthService {
     }
     
     public UserInfoResponse getUserInfo(String userId) {
-        User user = userRepository.findById(UUID.fromString(userId))
+        UserInfoView user = userRepository.findInfoById(UUID.fromString(userId))
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
         
         return UserInfoResponse.builder()
@@ -153,7 +154,7 @@ public class AuthService {
                 .map(UUID::fromString)
                 .collect(java.util.stream.Collectors.toList());
         
-        java.util.List<User> users = userRepository.findAllById(uuids);
+        java.util.List<UserInfoView> users = userRepository.findInfoByIdIn(uuids);
         
         return users.stream()
                 .collect(java.util.stream.Collectors.toMap(
@@ -0,0 +1,250 @@
+package com.shelve.bookcatalog.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shelve.bookcatalog.dto.BookResponse;
+import com.shelve.bookcatalog.entity.Book;
+import com.shelve.bookcatalog.event.BooksChangedEvent;
+import com.shelve.bookcatalog.event.CatalogReloadedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Serialized {@link BookResponse} bytes for the most requested books, so detail and batch
+ * lookups skip response mapping and Jackson entirely. Entries are keyed by book id and
+ * checked against the book's version ({@code updatedAt}) on every read, so a changed book
+ * is never served stale; {@link BooksChangedEvent}s also replace old versions right away.
+ * A revalidation ({@code If-None-Match}) is answered from the cache without loading the book
+ * only while the entry is as new as the shared catalog revision ({@link CatalogVersion}); once
+ * any instance has changed books since, the book is loaded again, since the change may be to
+ * this book on another instance.
+ * The cache is bounded by total bytes, and Caffeine's frequency-based admission keeps
+ * it to the books that actually carry the traffic.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookJsonCache {
+
+    private static final byte[] ARRAY_START = {'['};
+    private static final byte[] ARRAY_END = {']'};
+    private static final byte[] SEPARATOR = {','};
+    private static final byte[] ENTRY_ID = "{\"id\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ENTRY_FOUND = ",\"found\":true,\"book\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ENTRY_NOT_FOUND = ",\"found\":false}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ENTRY_END = {'}'};
+    private static final int VERSION_ONLY_WEIGHT = 64;
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final CatalogVersion catalogVersion;
+
+    @Value("${book-cache.json.max-bytes:67108864}")
+    private long maxBytes;
+
+    private Cache<UUID, Entry> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((UUID id, Entry entry) -> entry.json != null ? entry.json.getBytes().length : VERSION_ONLY_WEIGHT)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "book-json");
+    }
+
+    public CachedJson get(Book book, Function<Book, BookResponse> mapper) {
+        long version = version(book);
+        Entry entry = cache.getIfPresent(book.getId());
+        if (entry != null && entry.version == version && entry.json != null) {
+            return entry.json;
+        }
+        CachedJson json = new CachedJson(serialize(mapper.apply(book)), etag(book.getId(), version));
+        long revision = catalogVersion.sharedRevision();
+        // A reader that loaded the book just before an update must not put its older copy back
+        cache.asMap().merge(book.getId(), new Entry(version, revision, json),
+                (current, loaded) -> current.version > loaded.version ? current : loaded);
+        return json;
+    }
+
+    /**
+     * JSON for a book that isn't in the catalog, with no ETag: there is no id or version to
+     * cache or tag it by.
+     */
+    public CachedJson untagged(BookResponse response) {
+        return new CachedJson(serialize(response), null);
+    }
+
+    /**
+     * A JSON array of the books, assembled from their cached bytes.
+     */
+    public CachedJson getAll(List<Book> books, Function<Book, BookResponse> mapper) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(ARRAY_START);
+        List<String> etags = new ArrayList<>(books.size());
+        for (int i = 0; i < books.size(); i++) {
+            CachedJson json = get(books.get(i), mapper);
+            if (i > 0) {
+                out.writeBytes(SEPARATOR);
+            }
+            out.writeBytes(json.getBytes());
+            etags.add(json.getEtag());
+        }
+        out.writeBytes(ARRAY_END);
+        return new CachedJson(out.toByteArray(), batchEtag(etags));
+    }
+
+    /**
+     * A JSON array with one {@code {"id", "found", "book"}} entry per requested id, in request
+     * order; ids with no book (or that aren't UUIDs) get {@code "found": false} and no book.
+     */
+    public byte[] getLookup(List<String> ids, Map<UUID, Book> books, Function<Book, BookResponse> mapper) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(ARRAY_START);
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            Book book = parseId(id).map(books::get).orElse(null);
+            if (i > 0) {
+                out.writeBytes(SEPARATOR);
+            }
+            out.writeBytes(ENTRY_ID);
+            out.writeBytes(serialize(id));
+            if (book != null) {
+                out.writeBytes(ENTRY_FOUND);
+                out.writeBytes(get(book, mapper).getBytes());
+                out.writeBytes(ENTRY_END);
+            } else {
+                out.writeBytes(ENTRY_NOT_FOUND);
+            }
+        }
+        out.writeBytes(ARRAY_END);
+        return out.toByteArray();
+    }
+
+    /**
+     * The current ETag of a book, if its version is known without loading it: the cached entry
+     * was stored no earlier than the current shared catalog revision.
+     */
+    public Optional<String> peekEtag(UUID id) {
+        return peekEtag(id, catalogVersion.sharedRevision());
+    }
+
+    /**
+     * The ETag {@link #getAll} would give these books, if every one of their versions is known.
+     */
+    public Optional<String> peekBatchEtag(List<UUID> ids) {
+        long revision = catalogVersion.sharedRevision();
+        List<String> etags = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Optional<String> etag = peekEtag(id, revision);
+            if (etag.isEmpty()) {
+                return Optional.empty();
+            }
+            etags.add(etag.get());
+        }
+        return Optional.of(batchEtag(etags));
+    }
+
+    private Optional<String> peekEtag(UUID id, long revision) {
+        Entry entry = cache.getIfPresent(id);
+        return entry != null && entry.revision >= revision ? Optional.of(etag(id, entry.version)) : Optional.empty();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksChanged(BooksChangedEvent event) {
+        long revision = catalogVersion.sharedRevision();
+        for (Book book : event.getBooks()) {
+            if (book.getId() == null) {
+                continue;
+            }
+            if (event.isCreated() || book.getUpdatedAt() == null) {
+                cache.invalidate(book.getId());
+            } else {
+                // Keep only the new version, so a reader that loaded the old one can't put it back
+                Entry updated = new Entry(version(book), revision, null);
+                cache.asMap().merge(book.getId(), updated,
+                        (current, next) -> current.version > next.version ? current : next);
+            }
+        }
+    }
+
+    // Dump loads and migrations write books without BooksChangedEvents
+    @EventListener
+    public void onCatalogReloaded(CatalogReloadedEvent event) {
+        cache.invalidateAll();
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Microsecond timestamp: the precision Postgres stores updatedAt with
+    private long version(Book book) {
+        LocalDateTime updatedAt = book.getUpdatedAt();
+        if (updatedAt == null) {
+            return 0;
+        }
+        return updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.getNano() / 1_000;
+    }
+
+    private String etag(UUID id, long version) {
+        return "\"" + id + "-" + Long.toHexString(version) + "\"";
+    }
+
+    private static Optional<UUID> parseId(String id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(UUID.fromString(id));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private String batchEtag(List<String> etags) {
+        long hash = 1125899906842597L;
+        for (String etag : etags) {
+            hash = 31 * hash + etag.hashCode();
+        }
+        return "\"batch-" + Long.toHexString(hash) + "\"";
+    }
+
+    // json is null for a version-only entry left by an update, until the book is next read.
+    // revision is the shared catalog revision when the entry was stored
+    private static class Entry {
+        private final long version;
+        private final long revision;
+        private final CachedJson json;
+
+        Entry(long version, long revision, CachedJson json) {
+            this.version = version;
+            this.revision = revision;
+            this.json = json;
+        }
+    }
+}
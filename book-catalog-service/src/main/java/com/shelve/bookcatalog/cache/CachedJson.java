@@ -0,0 +1,15 @@
+package com.shelve.bookcatalog.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Serialized JSON ready to be written to a response as-is, with its entity tag (null for
+ * content that can't be revalidated).
+ */
+@Getter
+@AllArgsConstructor
+public class CachedJson {
+    private final byte[] bytes;
+    private final String etag;
+}
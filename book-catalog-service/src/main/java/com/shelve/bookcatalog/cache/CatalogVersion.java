@@ -0,0 +1,117 @@
+package com.shelve.bookcatalog.cache;
+
+import com.shelve.bookcatalog.event.BooksChangedEvent;
+import com.shelve.bookcatalog.event.CatalogReloadedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A version that moves whenever anything a listing shows may have changed, used as the ETag of
+ * list and genre responses. Revalidating a listing is then a string compare instead of a query.
+ *
+ * The tag has two parts. The shared part is the catalog revision in the database, which every
+ * instance bumps after writing books, so a write on one instance changes the tag on all of them.
+ * It is re-read at most every {@code book-cache.catalog-version.max-staleness}. The local part
+ * is a counter bumped after the in-memory structures listings read from (leaderboards, genre
+ * counts) have applied a change, so a response is never tagged with a version newer than its
+ * content; the startup time is part of it, so restarts don't reuse old tags.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogVersion {
+
+    private static final String READ = "SELECT revision FROM catalog_revision WHERE id = 1";
+    private static final String INCREMENT = "UPDATE catalog_revision SET revision = revision + 1 WHERE id = 1";
+    private static final String CREATE = "INSERT INTO catalog_revision (id, revision) VALUES (1, 1) ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${book-cache.catalog-version.max-staleness:PT1S}")
+    private Duration maxStaleness;
+
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+    private final AtomicLong version = new AtomicLong();
+    private volatile SharedRevision shared;
+
+    private TransactionTemplate newTransaction;
+
+    @PostConstruct
+    void init() {
+        // Listeners run after the writing transaction completed, while its resources may still be bound
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String etag() {
+        return "\"catalog-" + Long.toHexString(sharedRevision()) + "-" + epoch + "-"
+                + Long.toHexString(version.get()) + "\"";
+    }
+
+    /**
+     * A change to this instance's in-memory listing state only.
+     */
+    public void bump() {
+        version.incrementAndGet();
+    }
+
+    // After completion runs after every after-commit listener, i.e. once the change is everywhere
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onBooksChanged(BooksChangedEvent event) {
+        bumpShared();
+        bump();
+    }
+
+    @EventListener
+    public void onCatalogReloaded(CatalogReloadedEvent event) {
+        bumpShared();
+        bump();
+    }
+
+    private void bumpShared() {
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                if (jdbcTemplate.update(INCREMENT) == 0) {
+                    jdbcTemplate.update(CREATE);
+                }
+            });
+            // Our own write shows up in our tag right away
+            shared = null;
+        } catch (DataAccessException e) {
+            log.warn("Could not bump the shared catalog revision, other instances may serve stale listing tags: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * The catalog revision shared by all instances, at most {@code max-staleness} old.
+     */
+    public long sharedRevision() {
+        SharedRevision current = shared;
+        long now = System.nanoTime();
+        if (current == null || now - current.readAt() > maxStaleness.toNanos()) {
+            Long revision = jdbcTemplate.query(READ, rs -> rs.next() ? rs.getLong(1) : 0L);
+            current = new SharedRevision(revision != null ? revision : 0L, now);
+            shared = current;
+        }
+        return current.revision();
+    }
+
+    private record SharedRevision(long revision, long readAt) {
+    }
+}
@@ -0,0 +1,196 @@
+package com.shelve.bookcatalog.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shelve.bookcatalog.entity.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Two-tier cache of external API search results, keyed by provider and normalized query.
+ * A bounded in-heap LRU sits in front of a memory-mapped file that survives restarts.
+ * Empty results are cached too (with a shorter TTL) so queries the providers know
+ * nothing about do not keep costing quota.
+ *
+ * Entries are stored as serialized bytes and deserialized on every hit, so callers
+ * always get fresh {@link Book} instances they are free to persist.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExternalResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${book-search.external.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${book-search.external.cache.heap-entries:1000}")
+    private int heapEntries;
+
+    @Value("${book-search.external.cache.ttl:PT24H}")
+    private Duration ttl;
+
+    @Value("${book-search.external.cache.negative-ttl:PT1H}")
+    private Duration negativeTtl;
+
+    @Value("${book-search.external.cache.disk-enabled:true}")
+    private boolean diskEnabled;
+
+    @Value("${book-search.external.cache.disk-path:${java.io.tmpdir}/shelve-external-cache.dat}")
+    private String diskPath;
+
+    @Value("${book-search.external.cache.disk-slots:2048}")
+    private int diskSlots;
+
+    // A full Google Books page (40 volumes with descriptions) runs to several tens of KB
+    @Value("${book-search.external.cache.disk-slot-size:131072}")
+    private int diskSlotSize;
+
+    private Map<String, HeapEntry> heap;
+    private MappedDiskTier disk;
+    private JavaType bookListType;
+
+    @PostConstruct
+    void init() {
+        bookListType = objectMapper.getTypeFactory().constructCollectionType(List.class, Book.class);
+        heap = new LinkedHashMap<>(heapEntries, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, HeapEntry> eldest) {
+                return size() > heapEntries;
+            }
+        };
+        meterRegistry.gaugeMapSize("external.cache.heap.size", List.of(), heap);
+
+        if (enabled && diskEnabled) {
+            try {
+                disk = new MappedDiskTier(Path.of(diskPath), diskSlots, diskSlotSize);
+            } catch (IOException | RuntimeException e) {
+                log.warn("External response cache disk tier unavailable, using heap only: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (disk != null) {
+            disk.close();
+        }
+    }
+
+    public Optional<List<Book>> get(String provider, String query, int limit) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String key = key(provider, query, limit);
+        long now = System.currentTimeMillis();
+
+        byte[] value = null;
+        synchronized (heap) {
+            HeapEntry entry = heap.get(key);
+            if (entry != null) {
+                if (entry.expiresAt >= now) {
+                    value = entry.value;
+                } else {
+                    heap.remove(key);
+                }
+            }
+        }
+        if (value != null) {
+            return recordHit(provider, "heap", value);
+        }
+
+        if (disk != null) {
+            value = disk.get(key, now);
+            if (value != null) {
+                // Promote so the next hit is served from the heap
+                synchronized (heap) {
+                    heap.put(key, new HeapEntry(value, readExpiry(value, now)));
+                }
+                return recordHit(provider, "disk", value);
+            }
+        }
+
+        meterRegistry.counter("external.cache.misses", "provider", provider).increment();
+        return Optional.empty();
+    }
+
+    public void put(String provider, String query, int limit, List<Book> books) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            String key = key(provider, query, limit);
+            long now = System.currentTimeMillis();
+            long expiresAt = now + (books.isEmpty() ? negativeTtl : ttl).toMillis();
+            byte[] value = encode(books, expiresAt);
+
+            synchronized (heap) {
+                heap.put(key, new HeapEntry(value, expiresAt));
+            }
+            if (disk != null && !disk.put(key, value, expiresAt, now)) {
+                meterRegistry.counter("external.cache.disk.oversized", "provider", provider).increment();
+                log.debug("{} results for '{}' ({} bytes) too large for a disk cache slot", provider, query, value.length);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to cache {} results for '{}': {}", provider, query, e.getMessage());
+        }
+    }
+
+    private Optional<List<Book>> recordHit(String provider, String tier, byte[] value) {
+        try {
+            List<Book> books = decode(value);
+            meterRegistry.counter("external.cache.hits", "provider", provider, "tier", tier,
+                    "negative", String.valueOf(books.isEmpty())).increment();
+            return Optional.of(books);
+        } catch (IOException e) {
+            log.warn("Discarding unreadable cache entry: {}", e.getMessage());
+            meterRegistry.counter("external.cache.misses", "provider", provider).increment();
+            return Optional.empty();
+        }
+    }
+
+    // Value layout: [long expiresAt][json], so entries promoted from disk keep their original expiry
+    private byte[] encode(List<Book> books, long expiresAt) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(books);
+        return ByteBuffer.allocate(Long.BYTES + json.length).putLong(expiresAt).put(json).array();
+    }
+
+    private List<Book> decode(byte[] value) throws IOException {
+        return objectMapper.readValue(value, Long.BYTES, value.length - Long.BYTES, bookListType);
+    }
+
+    private long readExpiry(byte[] value, long fallback) {
+        return value.length >= Long.BYTES ? ByteBuffer.wrap(value).getLong() : fallback;
+    }
+
+    private String key(String provider, String query, int limit) {
+        String normalized = query == null ? "" : query.trim().toLowerCase().replaceAll("\\s+", " ");
+        return provider + "|" + limit + "|" + normalized;
+    }
+
+    private static class HeapEntry {
+        private final byte[] value;
+        private final long expiresAt;
+
+        HeapEntry(byte[] value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
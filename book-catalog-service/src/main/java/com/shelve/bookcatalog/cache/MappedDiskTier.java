@@ -0,0 +1,145 @@
+package com.shelve.bookcatalog.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Fixed-size key/value store in a memory-mapped file, used as the persistent tier of
+ * {@link ExternalResponseCache}. The file is split into equal slots; a key hashes to a
+ * small run of slots and takes the first free, expired or matching one, otherwise it
+ * evicts the first slot of its run. Values larger than a slot are not stored; {@link #put}
+ * returns false and the caller counts them.
+ *
+ * Slot layout: [int used][long expiresAt][int keyLength][int valueLength][key][value]
+ */
+@Slf4j
+class MappedDiskTier implements AutoCloseable {
+
+    private static final int HEADER_SIZE = 4 + 8 + 4 + 4;
+    private static final int OFFSET_EXPIRES = 4;
+    private static final int OFFSET_KEY_LENGTH = 12;
+    private static final int OFFSET_VALUE_LENGTH = 16;
+    private static final int PROBE_LENGTH = 4;
+    private static final int LOCK_STRIPES = 64;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final int slots;
+    private final int slotSize;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    MappedDiskTier(Path path, int slots, int slotSize) throws IOException {
+        this.slots = slots;
+        this.slotSize = slotSize;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        long size = (long) slots * slotSize;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Cache file cannot exceed 2 GB, got " + size + " bytes");
+        }
+        file = new RandomAccessFile(path.toFile(), "rw");
+        if (file.length() != size) {
+            // Layout changed (or new file): start from an empty cache
+            log.info("Initializing external response cache file {} ({} MB)", path, size / (1024 * 1024));
+            file.setLength(0);
+            file.setLength(size);
+        }
+        buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    byte[] get(String key, long now) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int first = firstSlot(key);
+        for (int i = 0; i < PROBE_LENGTH; i++) {
+            int slot = (first + i) % slots;
+            synchronized (lockFor(slot)) {
+                int base = slot * slotSize;
+                if (buffer.getInt(base) == 0 || !keyMatches(base, keyBytes)) {
+                    continue;
+                }
+                if (buffer.getLong(base + OFFSET_EXPIRES) < now) {
+                    buffer.putInt(base, 0);
+                    return null;
+                }
+                int valueLength = buffer.getInt(base + OFFSET_VALUE_LENGTH);
+                if (valueLength < 0 || HEADER_SIZE + keyBytes.length + valueLength > slotSize) {
+                    buffer.putInt(base, 0);
+                    return null;
+                }
+                byte[] value = new byte[valueLength];
+                buffer.get(base + HEADER_SIZE + keyBytes.length, value);
+                return value;
+            }
+        }
+        return null;
+    }
+
+    boolean put(String key, byte[] value, long expiresAt, long now) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (HEADER_SIZE + keyBytes.length + value.length > slotSize) {
+            return false;
+        }
+
+        int first = firstSlot(key);
+        int target = first;
+        for (int i = 0; i < PROBE_LENGTH; i++) {
+            int slot = (first + i) % slots;
+            int base = slot * slotSize;
+            synchronized (lockFor(slot)) {
+                if (buffer.getInt(base) == 0 || buffer.getLong(base + OFFSET_EXPIRES) < now
+                        || keyMatches(base, keyBytes)) {
+                    target = slot;
+                    break;
+                }
+            }
+        }
+
+        synchronized (lockFor(target)) {
+            int base = target * slotSize;
+            buffer.putInt(base, 0);
+            buffer.putLong(base + OFFSET_EXPIRES, expiresAt);
+            buffer.putInt(base + OFFSET_KEY_LENGTH, keyBytes.length);
+            buffer.putInt(base + OFFSET_VALUE_LENGTH, value.length);
+            buffer.put(base + HEADER_SIZE, keyBytes);
+            buffer.put(base + HEADER_SIZE + keyBytes.length, value);
+            buffer.putInt(base, 1);
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        file.close();
+    }
+
+    private boolean keyMatches(int base, byte[] keyBytes) {
+        if (buffer.getInt(base + OFFSET_KEY_LENGTH) != keyBytes.length) {
+            return false;
+        }
+        byte[] stored = new byte[keyBytes.length];
+        buffer.get(base + HEADER_SIZE, stored);
+        return Arrays.equals(stored, keyBytes);
+    }
+
+    private int firstSlot(String key) {
+        return (key.hashCode() & 0x7fffffff) % slots;
+    }
+
+    private Object lockFor(int slot) {
+        return locks[slot % LOCK_STRIPES];
+    }
+}
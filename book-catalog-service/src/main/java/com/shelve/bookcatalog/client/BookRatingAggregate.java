@@ -0,0 +1,14 @@
+package com.shelve.bookcatalog.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookRatingAggregate {
+    private String bookId;
+    private long ratingSum;
+    private long ratingCount;
+}
@@ -0,0 +1,18 @@
+package com.shelve.bookcatalog.client;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+import java.util.UUID;
+
+@FeignClient(name = "review-rating-service")
+public interface ReviewRatingClient {
+
+    /**
+     * Rating sum and count of every rated book whose id falls in [from, to].
+     */
+    @GetMapping("/api/ratings/aggregates")
+    List<BookRatingAggregate> getAggregates(@RequestParam("from") UUID from, @RequestParam("to") UUID to);
+}
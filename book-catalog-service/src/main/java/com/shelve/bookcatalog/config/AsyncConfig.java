@@ -0,0 +1,98 @@
+package com.shelve.bookcatalog.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    @Value("${book-search.enrichment.threads:2}")
+    private int enrichmentThreads;
+
+    @Value("${book-search.enrichment.queue-capacity:100}")
+    private int enrichmentQueueCapacity;
+
+    @Value("${book-import.jobs.max-concurrent:2}")
+    private int maxConcurrentImportJobs;
+
+    @Value("${book-import.jobs.fetch-threads:4}")
+    private int importFetchThreads;
+
+    @Value("${book-batch.lookup-threads:4}")
+    private int bookLookupThreads;
+
+    @Value("${book-rating.rebuild.parallelism:4}")
+    private int ratingRebuildThreads;
+
+    /**
+     * Runs external search enrichment off the request thread.
+     * Submissions beyond the queue capacity are rejected rather than piling up behind slow providers.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor searchEnrichmentExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(enrichmentThreads);
+        executor.setMaxPoolSize(enrichmentThreads);
+        executor.setQueueCapacity(enrichmentQueueCapacity);
+        executor.setThreadNamePrefix("search-enrichment-");
+        return executor;
+    }
+
+    /**
+     * Runs import job coordinators, which also act as each job's dedup/write stage.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor importJobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentImportJobs);
+        executor.setMaxPoolSize(maxConcurrentImportJobs);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("import-job-");
+        return executor;
+    }
+
+    /**
+     * Fetch/convert stage of import jobs, shared by all running jobs.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor importFetchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(importFetchThreads);
+        executor.setMaxPoolSize(importFetchThreads);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("import-fetch-");
+        return executor;
+    }
+
+    /**
+     * Fetches and applies the partitions of a rating rebuild.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor ratingRebuildExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(ratingRebuildThreads);
+        executor.setMaxPoolSize(ratingRebuildThreads);
+        executor.setQueueCapacity(1024);
+        executor.setThreadNamePrefix("rating-rebuild-");
+        return executor;
+    }
+
+    /**
+     * Loads the chunks of large bulk book lookups in parallel.
+     * When saturated, the request thread loads its chunks itself instead of failing.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor bookLookupExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(bookLookupThreads);
+        executor.setMaxPoolSize(bookLookupThreads);
+        executor.setQueueCapacity(64);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("book-lookup-");
+        return executor;
+    }
+}
@@ -0,0 +1,82 @@
+package com.shelve.bookcatalog.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Creates the indexes on books that {@code @Index} cannot express, such as expression indexes.
+ *
+ * They are built with CREATE INDEX CONCURRENTLY on a background thread after startup, so
+ * neither startup nor writes to books wait for them. A build that failed part way leaves an
+ * invalid index behind; it is dropped and rebuilt on the next startup.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogIndexInitializer {
+
+    private static final Map<String, String> INDEXES = new LinkedHashMap<>();
+
+    static {
+        // Duplicate checks of imports (BookBatchWriter) and dump loads match on lowercased title and author
+        INDEXES.put("idx_books_lower_title_author", "ON books (LOWER(title), LOWER(author))");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createOnStartup() {
+        Thread builder = new Thread(this::createIndexes, "catalog-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    private void createIndexes() {
+        INDEXES.forEach((name, definition) -> {
+            try {
+                ensureIndex(name, false, definition);
+            } catch (DataAccessException e) {
+                log.error("Index {} not created, will retry on next startup: {}", name, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Build the index CONCURRENTLY unless a valid one already exists.
+     *
+     * @return true if the index was built by this call
+     */
+    boolean ensureIndex(String name, boolean unique, String definition) {
+        Boolean valid = validity(name);
+        if (Boolean.TRUE.equals(valid)) {
+            return false;
+        }
+        if (valid != null) {
+            log.warn("Dropping invalid index {} left by an interrupted build", name);
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+        }
+        long startedAt = System.currentTimeMillis();
+        jdbcTemplate.execute("CREATE " + (unique ? "UNIQUE " : "") + "INDEX CONCURRENTLY IF NOT EXISTS "
+                + name + " " + definition);
+        log.info("Created index {} in {} ms", name, System.currentTimeMillis() - startedAt);
+        return true;
+    }
+
+    boolean hasValidIndex(String name) {
+        return Boolean.TRUE.equals(validity(name));
+    }
+
+    // Null if the index doesn't exist, false if a concurrent build of it failed
+    private Boolean validity(String name) {
+        return jdbcTemplate.query("SELECT indisvalid FROM pg_index WHERE indexrelid = to_regclass(?)",
+                rs -> rs.next() ? rs.getBoolean(1) : null, name);
+    }
+}
@@ -0,0 +1,27 @@
+package com.shelve.bookcatalog.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports startup catalog seeding progress as {@code catalogWarming} in the readiness group.
+ * It stays UP while warming: the service can answer requests from a partial catalog,
+ * so seeding must never hold back readiness.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogWarmingHealthIndicator implements HealthIndicator {
+
+    private final DataInitializer dataInitializer;
+
+    @Override
+    public Health health() {
+        return Health.up()
+                .withDetail("state", dataInitializer.getState())
+                .withDetail("completedSteps", dataInitializer.getCompletedSteps())
+                .withDetail("totalSteps", dataInitializer.getTotalSteps())
+                .build();
+    }
+}
@@ -1,28 +1,60 @@
 package com.shelve.bookcatalog.config;
 
 import com.shelve.bookcatalog.entity.Book;
+import com.shelve.bookcatalog.entity.SeedCheckpoint;
+import com.shelve.bookcatalog.ratelimit.RequestPriority;
 import com.shelve.bookcatalog.repository.BookRepository;
+import com.shelve.bookcatalog.repository.SeedCheckpointRepository;
+import com.shelve.bookcatalog.service.BookBatchWriter;
 import com.shelve.bookcatalog.service.ExternalBookService;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-
-@Configuration
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Seeds an empty catalog from the external APIs (or the curated fallback list) in the
+ * background once the service is up, so startup and health checks never wait on it.
+ * Every finished query is checkpointed in {@link SeedCheckpoint}; a restart skips the
+ * steps already done. A step interrupted between saving its books and its checkpoint
+ * is simply run again, and {@link BookBatchWriter} drops the duplicates.
+ */
+@Component
+@RequiredArgsConstructor
 @Slf4j
 public class DataInitializer {
 
+    public enum WarmingState { PENDING, WARMING, WARM, FAILED }
+
+    private static final String COMPLETE_STEP = "seed:complete";
+    private static final String FALLBACK_STEP = "fallback";
+    private static final int MIN_API_BOOKS = 30;
+
+    private final BookRepository bookRepository;
+    private final ExternalBookService externalBookService;
+    private final BookBatchWriter bookBatchWriter;
+    private final SeedCheckpointRepository checkpointRepository;
+
     @Value("${book-import.on-startup:true}")
     private boolean importOnStartup;
 
     @Value("${book-import.use-api:true}")
     private boolean useApi;
 
+    private volatile WarmingState state = WarmingState.PENDING;
+    private volatile int completedSteps;
+    private volatile int totalSteps;
+
     // Diverse search queries to populate catalog with popular books from both Google Books and Open Library
     private static final String[] GOOGLE_BOOKS_QUERIES = {
         "bestseller fiction 2024",
@@ -59,123 +91,141 @@ public class DataInitializer {
         "sherlock holmes"
     };
 
-    @Bean
-    CommandLineRunner initDatabase(BookRepository bookRepository, ExternalBookService externalBookService) {
-        return args -> {
-            if (bookRepository.count() == 0) {
-                log.info("Database is empty. Initializing book catalog...");
-
-                if (importOnStartup && useApi) {
-                    importFromGoogleBooks(bookRepository, externalBookService);
-                } else {
-                    loadFallbackData(bookRepository);
-                }
-            } else {
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        Thread seeder = new Thread(this::seed, "catalog-seeder");
+        seeder.setDaemon(true);
+        seeder.start();
+    }
+
+    public WarmingState getState() {
+        return state;
+    }
+
+    public int getCompletedSteps() {
+        return completedSteps;
+    }
+
+    public int getTotalSteps() {
+        return totalSteps;
+    }
+
+    void seed() {
+        try {
+            if (checkpointRepository.existsById(COMPLETE_STEP)) {
+                log.info("Book catalog already seeded ({} books)", bookRepository.count());
+                state = WarmingState.WARM;
+                return;
+            }
+            boolean resuming = checkpointRepository.count() > 0;
+            if (!resuming && bookRepository.count() > 0) {
                 log.info("Book catalog already contains {} books", bookRepository.count());
+                state = WarmingState.WARM;
+                return;
             }
-        };
+
+            state = WarmingState.WARMING;
+            log.info(resuming ? "Resuming book catalog seeding..." : "Database is empty. Initializing book catalog...");
+            boolean finished = importOnStartup && useApi ? seedFromApis() : runFallbackStep();
+            if (finished) {
+                checkpoint(COMPLETE_STEP, 0);
+            } else {
+                log.warn("Some seeding steps failed; they will be retried on the next startup");
+            }
+            state = WarmingState.WARM;
+            log.info("Book catalog seeding finished, catalog contains {} books", bookRepository.count());
+        } catch (Exception e) {
+            state = WarmingState.FAILED;
+            log.error("Book catalog seeding failed: {}", e.getMessage(), e);
+        }
     }
 
     /**
-     * Import books from Google Books and Open Library APIs on startup
+     * Import books from Google Books and Open Library APIs, one checkpointed step per query.
+     *
+     * @return whether every step completed
      */
-    private void importFromGoogleBooks(BookRepository bookRepository, ExternalBookService externalBookService) {
-        log.info("Fetching books from external APIs...");
-        int totalImported = 0;
-
-        // Import from Google Books
+    private boolean seedFromApis() {
+        List<String> steps = new ArrayList<>();
         for (String query : GOOGLE_BOOKS_QUERIES) {
-            try {
-                log.info("Searching Google Books for: '{}'", query);
-                List<Book> books = externalBookService.searchGoogleBooks(query, 15);
-
-                for (Book book : books) {
-                    if (saveBookIfNew(bookRepository, book)) {
-                        totalImported++;
-                        log.debug("Imported from Google: {} by {}", book.getTitle(), book.getAuthor());
-                    }
-                }
-
-                // Rate limiting - avoid hitting API too fast
-                Thread.sleep(200);
-
-            } catch (Exception e) {
-                log.warn("Failed to fetch books for query '{}': {}", query, e.getMessage());
-            }
+            steps.add("google-books:" + query);
         }
-        
-        log.info("Imported {} books from Google Books API", totalImported);
-        
-        // Import from Open Library for popular series
-        int openLibraryImported = 0;
         for (String query : OPEN_LIBRARY_QUERIES) {
-            try {
-                log.info("Searching Open Library for: '{}'", query);
-                List<Book> books = externalBookService.searchOpenLibrary(query, 10);
-
-                for (Book book : books) {
-                    if (saveBookIfNew(bookRepository, book)) {
-                        openLibraryImported++;
-                        log.debug("Imported from Open Library: {} by {}", book.getTitle(), book.getAuthor());
-                    }
-                }
+            steps.add("open-library:" + query);
+        }
 
-                Thread.sleep(200);
+        List<SeedCheckpoint> checkpoints = checkpointRepository.findAll();
+        Set<String> done = checkpoints.stream().map(SeedCheckpoint::getStep).collect(Collectors.toSet());
+        int totalImported = checkpoints.stream().mapToInt(SeedCheckpoint::getImportedCount).sum();
+        totalSteps = steps.size() + 1;
+        completedSteps = (int) steps.stream().filter(done::contains).count();
 
-            } catch (Exception e) {
-                log.warn("Failed to fetch books from Open Library for '{}': {}", query, e.getMessage());
-            }
+        boolean allDone = true;
+        for (String query : GOOGLE_BOOKS_QUERIES) {
+            // Seeding yields the provider budget to user searches and imports
+            Integer imported = runStep(done, "google-books:" + query,
+                    () -> externalBookService.searchGoogleBooks(query, 15, RequestPriority.BACKGROUND));
+            allDone &= imported != null;
+            totalImported += imported != null ? imported : 0;
         }
-        
-        log.info("Imported {} books from Open Library API", openLibraryImported);
-        totalImported += openLibraryImported;
-
-        log.info("Successfully imported {} total books from external APIs", totalImported);
+        for (String query : OPEN_LIBRARY_QUERIES) {
+            Integer imported = runStep(done, "open-library:" + query,
+                    () -> externalBookService.searchOpenLibrary(query, 10, RequestPriority.BACKGROUND));
+            allDone &= imported != null;
+            totalImported += imported != null ? imported : 0;
+        }
+        log.info("Imported {} books from external APIs", totalImported);
 
         // If we got fewer than 30 books, supplement with fallback data
-        if (totalImported < 30) {
+        if (totalImported < MIN_API_BOOKS && !done.contains(FALLBACK_STEP)) {
             log.info("APIs returned fewer books than expected, loading fallback data...");
-            loadFallbackData(bookRepository);
+            allDone &= runFallbackStep();
+        } else {
+            completedSteps++;
         }
+        return allDone;
     }
-    
-    private boolean saveBookIfNew(BookRepository bookRepository, Book book) {
+
+    /**
+     * @return the number of books imported, or null if the step failed and must be retried
+     */
+    private Integer runStep(Set<String> done, String step, Supplier<List<Book>> fetch) {
+        if (done.contains(step)) {
+            return 0;
+        }
         try {
-            // Skip duplicates
-            if (book.getIsbn() != null && bookRepository.existsByIsbn(book.getIsbn())) {
-                return false;
-            }
-            if (bookRepository.existsByTitleAndAuthor(book.getTitle(), book.getAuthor())) {
-                return false;
-            }
-            bookRepository.save(book);
-            return true;
+            log.info("Seeding catalog: {}", step);
+            int imported = bookBatchWriter.saveNewBooks(fetch.get()).size();
+            checkpoint(step, imported);
+            completedSteps++;
+            return imported;
         } catch (Exception e) {
-            log.warn("Failed to save book '{}': {}", book.getTitle(), e.getMessage());
-            return false;
+            log.warn("Seeding step '{}' failed: {}", step, e.getMessage());
+            return null;
         }
     }
 
     /**
      * Fallback: Load curated book list if API is unavailable or disabled
      */
-    private void loadFallbackData(BookRepository bookRepository) {
-        log.info("Loading fallback book catalog...");
-        List<Book> fallbackBooks = createFallbackBooks();
-        int saved = 0;
-
-        for (Book book : fallbackBooks) {
-            if (book.getIsbn() != null && bookRepository.existsByIsbn(book.getIsbn())) {
-                continue;
-            }
-            if (bookRepository.existsByTitleAndAuthor(book.getTitle(), book.getAuthor())) {
-                continue;
-            }
-            bookRepository.save(book);
-            saved++;
+    private boolean runFallbackStep() {
+        if (totalSteps == 0) {
+            totalSteps = 1;
         }
-
+        log.info("Loading fallback book catalog...");
+        int saved = bookBatchWriter.saveNewBooks(createFallbackBooks()).size();
+        checkpoint(FALLBACK_STEP, saved);
+        completedSteps++;
         log.info("Loaded {} fallback books", saved);
+        return true;
+    }
+
+    private void checkpoint(String step, int imported) {
+        checkpointRepository.save(SeedCheckpoint.builder()
+                .step(step)
+                .importedCount(imported)
+                .completedAt(LocalDateTime.now())
+                .build());
     }
 
     /**
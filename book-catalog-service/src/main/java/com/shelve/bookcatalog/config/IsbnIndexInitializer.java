@@ -0,0 +1,162 @@
+package com.shelve.bookcatalog.config;
+
+import com.shelve.bookcatalog.entity.Book;
+import com.shelve.bookcatalog.entity.Isbns;
+import com.shelve.bookcatalog.event.CatalogReloadedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Brings ISBNs stored before canonicalization to ISBN-13 and puts a unique index on them.
+ *
+ * Runs on a background thread after startup for as long as the index is missing, on one instance
+ * at a time (a Postgres advisory lock): stored ISBNs are rewritten to their canonical form a page
+ * of rows at a time (invalid ones are cleared), and where several books share an ISBN the oldest,
+ * the one imports have been deduplicating against, keeps it. The others lose their ISBN, which is
+ * recorded in book_isbn_aliases as pointing at the survivor; no book is deleted, since other
+ * services hold book ids. The index is then built CONCURRENTLY so writes to books carry on
+ * meanwhile. Books written since go through {@link Isbns} and keep the index valid.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IsbnIndexInitializer {
+
+    private static final int PAGE_SIZE = 1000;
+    // A book written with a duplicate ISBN while the index builds fails the build; clean up and retry
+    private static final int MAX_BUILD_ATTEMPTS = 3;
+
+    private static final String SELECT_PAGE = "SELECT id, isbn FROM books WHERE isbn IS NOT NULL AND id > ? "
+            + "ORDER BY id LIMIT " + PAGE_SIZE;
+    private static final String CLEAR_DUPLICATES = "WITH ranked AS ("
+            + "SELECT id, isbn, FIRST_VALUE(id) OVER copies AS survivor, ROW_NUMBER() OVER copies AS copy "
+            + "FROM books WHERE isbn IS NOT NULL WINDOW copies AS (PARTITION BY isbn ORDER BY created_at, id)), "
+            + "aliased AS (INSERT INTO book_isbn_aliases (isbn, book_id) "
+            + "SELECT DISTINCT isbn, survivor FROM ranked WHERE copy > 1 ON CONFLICT (isbn) DO NOTHING) "
+            + "UPDATE books b SET isbn = NULL, updated_at = now() FROM ranked r WHERE b.id = r.id AND r.copy > 1";
+    // Held for the whole migration so instances starting together don't run it side by side
+    private static final String MIGRATION_LOCK = "isbn-index-migration";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CatalogIndexInitializer catalogIndexInitializer;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread migration = new Thread(this::migrate, "isbn-index-migration");
+        migration.setDaemon(true);
+        migration.start();
+    }
+
+    void migrate() {
+        try {
+            if (catalogIndexInitializer.hasValidIndex(Isbns.UNIQUE_INDEX)) {
+                return;
+            }
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                if (!advisoryLock(connection, "pg_try_advisory_lock")) {
+                    log.info("Another instance is migrating ISBNs, leaving {} to it", Isbns.UNIQUE_INDEX);
+                    return null;
+                }
+                try {
+                    if (!catalogIndexInitializer.hasValidIndex(Isbns.UNIQUE_INDEX)) {
+                        migrateLocked();
+                    }
+                } finally {
+                    advisoryLock(connection, "pg_advisory_unlock");
+                }
+                return null;
+            });
+        } catch (DataAccessException e) {
+            log.error("ISBN unique index not created, will retry on next startup: {}", e.getMessage());
+        }
+    }
+
+    // Runs on other pooled connections while the lock's connection is held
+    private void migrateLocked() {
+        long startedAt = System.currentTimeMillis();
+        int[] rewritten = canonicalize();
+        int cleared = 0;
+        for (int attempt = 1; ; attempt++) {
+            cleared += jdbcTemplate.update(CLEAR_DUPLICATES);
+            try {
+                catalogIndexInitializer.ensureIndex(Isbns.UNIQUE_INDEX, true, "ON books (isbn)");
+                break;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == MAX_BUILD_ATTEMPTS) {
+                    throw e;
+                }
+                log.info("A duplicate ISBN was written while {} was being built, retrying", Isbns.UNIQUE_INDEX);
+            }
+        }
+        // The plain ISBN index qualified searches used before is now redundant
+        jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS idx_books_isbn");
+        log.info("Canonicalized {} ISBNs (cleared {} invalid), moved {} duplicate ISBNs to aliases and created {} in {} ms",
+                rewritten[0], rewritten[1], cleared, Isbns.UNIQUE_INDEX, System.currentTimeMillis() - startedAt);
+
+        if (rewritten[0] + cleared > 0) {
+            // Rows changed behind Hibernate's back: drop cached copies and rebuild the in-memory indexes
+            entityManagerFactory.getCache().evict(Book.class);
+            eventPublisher.publishEvent(new CatalogReloadedEvent());
+        }
+    }
+
+    private static boolean advisoryLock(Connection connection, String function) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(hashtext(?))")) {
+            statement.setString(1, MIGRATION_LOCK);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Rewrite stored ISBNs to ISBN-13, one page of rows (in id order) at a time.
+     *
+     * @return the number of ISBNs rewritten, and how many of those were invalid and cleared
+     */
+    private int[] canonicalize() {
+        int rewritten = 0;
+        int cleared = 0;
+        UUID after = new UUID(0, 0);
+        while (true) {
+            List<Object[]> updates = new ArrayList<>();
+            List<UUID> ids = jdbcTemplate.query(SELECT_PAGE, (rs, row) -> {
+                UUID id = rs.getObject("id", UUID.class);
+                String isbn = rs.getString("isbn");
+                String canonical = Isbns.toIsbn13(isbn);
+                if (!isbn.equals(canonical)) {
+                    updates.add(new Object[]{canonical, id});
+                }
+                return id;
+            }, after);
+            if (ids.isEmpty()) {
+                return new int[]{rewritten, cleared};
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE books SET isbn = ?, updated_at = now() WHERE id = ?", updates);
+                rewritten += updates.size();
+                cleared += (int) updates.stream().filter(update -> update[0] == null).count();
+            }
+            after = ids.get(ids.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.shelve.bookcatalog.config;
+
+import org.springframework.amqp.core.*;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The catalog's own queue on review-rating-service's rating exchange, so rating events
+ * reach it independently of the other consumers.
+ */
+@Configuration
+public class RabbitMQConfig {
+
+    public static final String RATING_EXCHANGE = "rating.exchange";
+    public static final String RATING_QUEUE = "book-catalog.rating.queue";
+    public static final String RATING_ROUTING_PATTERN = "rating.#";
+
+    @Bean
+    public Exchange ratingExchange() {
+        return ExchangeBuilder.topicExchange(RATING_EXCHANGE).durable(true).build();
+    }
+
+    @Bean
+    public Queue ratingQueue() {
+        return QueueBuilder.durable(RATING_QUEUE).build();
+    }
+
+    @Bean
+    public Binding ratingBinding(Queue ratingQueue, Exchange ratingExchange) {
+        return BindingBuilder.bind(ratingQueue)
+                .to(ratingExchange)
+                .with(RATING_ROUTING_PATTERN)
+                .noargs();
+    }
+
+    // Payloads are bound to the listener's parameter type, not the producer's class name
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+}
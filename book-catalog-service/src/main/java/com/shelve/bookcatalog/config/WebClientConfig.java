@@ -1,15 +1,46 @@
 package com.shelve.bookcatalog.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
+    @Value("${book-search.external.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${book-search.external.response-timeout:PT10S}")
+    private Duration responseTimeout;
+
+    /**
+     * Keep-alive connection pool shared by every client built from {@link #webClientBuilder(ConnectionProvider)}.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider externalApiConnectionProvider() {
+        return ConnectionProvider.builder("external-book-apis")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofSeconds(5))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+    }
+
     @Bean
-    public WebClient.Builder webClientBuilder() {
+    public WebClient.Builder webClientBuilder(ConnectionProvider externalApiConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(externalApiConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 3000)
+                .responseTimeout(responseTimeout)
+                .compress(true);
+
         return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .codecs(configurer -> configurer
                         .defaultCodecs()
                         .maxInMemorySize(16 * 1024 * 1024)); // 16MB buffer
@@ -1,16 +1,32 @@
 package com.shelve.bookcatalog.controller;
 
+import com.shelve.bookcatalog.cache.CachedJson;
+import com.shelve.bookcatalog.cache.CatalogVersion;
 import com.shelve.bookcatalog.dto.BookResponse;
 import com.shelve.bookcatalog.dto.CreateBookRequest;
+import com.shelve.bookcatalog.dto.CursorPagedResponse;
+import com.shelve.bookcatalog.dto.EnrichmentStatusResponse;
+import com.shelve.bookcatalog.dto.GenreResponse;
 import com.shelve.bookcatalog.dto.PagedResponse;
+import com.shelve.bookcatalog.dto.SuggestionResponse;
+import com.shelve.bookcatalog.facet.BookFacet;
+import com.shelve.bookcatalog.search.BookSuggester;
 import com.shelve.bookcatalog.service.BookService;
+import com.shelve.bookcatalog.service.SearchEnrichmentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/books")
@@ -18,24 +34,67 @@ import java.util.List;
 public class BookController {
 
     private final BookService bookService;
+    private final SearchEnrichmentService searchEnrichmentService;
+    private final CatalogVersion catalogVersion;
+    private final BookSuggester bookSuggester;
+
+    @Value("${book-batch.max-ids:5000}")
+    private int maxLookupIds;
 
     @GetMapping
     public ResponseEntity<PagedResponse<BookResponse>> getAllBooks(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "title") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
-        return ResponseEntity.ok(bookService.getAllBooks(page, size, sortBy, sortDir));
+            @RequestParam(defaultValue = "asc") String sortDir,
+            WebRequest request) {
+        return listResponse(request, () -> bookService.getAllBooks(page, size, sortBy, sortDir));
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPagedResponse<BookResponse>> scrollBooks(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "title") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            WebRequest request) {
+        return listResponse(request, () -> bookService.scrollBooks(sortBy, sortDir, size, cursor, includeTotal));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<BookResponse> getBookById(@PathVariable String id) {
-        return ResponseEntity.ok(bookService.getBookById(id));
+    public ResponseEntity<byte[]> getBookById(@PathVariable String id, WebRequest request) {
+        Optional<String> etag = bookService.getBookEtag(id);
+        if (etag.isPresent() && request.checkNotModified(etag.get())) {
+            return notModified(etag.get());
+        }
+        return jsonResponse(bookService.getBookJson(id), request);
+    }
+
+    // Barcode scans: answered from the catalog; only an unknown ISBN goes to Google Books, without saving it
+    @GetMapping("/isbn/{isbn}")
+    public ResponseEntity<byte[]> getBookByIsbn(@PathVariable String isbn, WebRequest request) {
+        return jsonResponse(bookService.getBookJsonByIsbn(isbn), request);
     }
 
     @GetMapping("/batch")
-    public ResponseEntity<List<BookResponse>> getBooksByIds(@RequestParam List<String> ids) {
-        return ResponseEntity.ok(bookService.getBooksByIds(ids));
+    public ResponseEntity<byte[]> getBooksByIds(@RequestParam List<String> ids, WebRequest request) {
+        Optional<String> etag = bookService.getBooksEtag(ids);
+        if (etag.isPresent() && request.checkNotModified(etag.get())) {
+            return notModified(etag.get());
+        }
+        return jsonResponse(bookService.getBooksJson(ids), request);
+    }
+
+    // Bulk lookup for id sets too large for a query string: a JSON array of ids in, one entry per id out
+    @PostMapping("/batch")
+    public ResponseEntity<byte[]> lookupBooks(@RequestBody List<String> ids) {
+        if (ids.size() > maxLookupIds) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(bookService.lookupBooksJson(ids));
     }
 
     @GetMapping("/search")
@@ -46,35 +105,132 @@ public class BookController {
         return ResponseEntity.ok(bookService.searchBooks(q, page, size));
     }
 
+    // Filter by genre, language, decade ("1990s") and pages ("200-299"); a parameter may repeat
+    // to allow any of several values. Without q, browses the whole catalog newest first.
+    @GetMapping("/facets")
+    public ResponseEntity<PagedResponse<BookResponse>> searchFaceted(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) List<String> genre,
+            @RequestParam(required = false) List<String> language,
+            @RequestParam(required = false) List<String> decade,
+            @RequestParam(required = false) List<String> pages,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Map<BookFacet, List<String>> filters = new EnumMap<>(BookFacet.class);
+        filters.put(BookFacet.GENRE, genre != null ? genre : List.of());
+        filters.put(BookFacet.LANGUAGE, language != null ? language : List.of());
+        filters.put(BookFacet.DECADE, decade != null ? decade : List.of());
+        filters.put(BookFacet.PAGES, pages != null ? pages : List.of());
+        return ResponseEntity.ok(bookService.searchFaceted(q, filters, page, size));
+    }
+
+    // Typeahead: served from memory, never queries the database or external APIs
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(bookSuggester.suggest(q, limit));
+    }
+
+    @GetMapping("/search/enrichment/{token}")
+    public ResponseEntity<EnrichmentStatusResponse> getEnrichmentStatus(@PathVariable String token) {
+        return searchEnrichmentService.getStatus(token)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/genre/{genre}")
     public ResponseEntity<PagedResponse<BookResponse>> getBooksByGenre(
             @PathVariable String genre,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        return ResponseEntity.ok(bookService.getBooksByGenre(genre, page, size));
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request) {
+        return listResponse(request, () -> bookService.getBooksByGenre(genre, page, size));
+    }
+
+    @GetMapping("/genre/{genre}/scroll")
+    public ResponseEntity<CursorPagedResponse<BookResponse>> scrollBooksByGenre(
+            @PathVariable String genre,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            WebRequest request) {
+        return listResponse(request, () -> bookService.scrollBooksByGenre(genre, size, cursor, includeTotal));
     }
 
     @GetMapping("/genres")
-    public ResponseEntity<List<String>> getAllGenres() {
-        return ResponseEntity.ok(bookService.getAllGenres());
+    public ResponseEntity<List<String>> getAllGenres(WebRequest request) {
+        return listResponse(request, bookService::getAllGenres);
+    }
+
+    @GetMapping("/genres/counts")
+    public ResponseEntity<List<GenreResponse>> getGenreCounts(WebRequest request) {
+        return listResponse(request, bookService::getGenres);
     }
 
     @GetMapping("/top-rated")
     public ResponseEntity<PagedResponse<BookResponse>> getTopRatedBooks(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        return ResponseEntity.ok(bookService.getTopRatedBooks(page, size));
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request) {
+        return listResponse(request, () -> bookService.getTopRatedBooks(page, size));
+    }
+
+    @GetMapping("/top-rated/scroll")
+    public ResponseEntity<CursorPagedResponse<BookResponse>> scrollTopRatedBooks(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            WebRequest request) {
+        return listResponse(request, () -> bookService.scrollTopRatedBooks(size, cursor, includeTotal));
     }
 
     @GetMapping("/recent")
     public ResponseEntity<PagedResponse<BookResponse>> getRecentlyAddedBooks(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        return ResponseEntity.ok(bookService.getRecentlyAddedBooks(page, size));
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request) {
+        return listResponse(request, () -> bookService.getRecentlyAddedBooks(page, size));
+    }
+
+    @GetMapping("/recent/scroll")
+    public ResponseEntity<CursorPagedResponse<BookResponse>> scrollRecentlyAddedBooks(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            WebRequest request) {
+        return listResponse(request, () -> bookService.scrollRecentlyAddedBooks(size, cursor, includeTotal));
     }
 
     @PostMapping
     public ResponseEntity<BookResponse> createBook(@Valid @RequestBody CreateBookRequest request) {
         return ResponseEntity.status(HttpStatus.CREATED).body(bookService.createBook(request));
     }
+
+    // Pre-serialized BookResponse JSON goes out as-is, or as a 304 if the client's copy is current
+    private ResponseEntity<byte[]> jsonResponse(CachedJson json, WebRequest request) {
+        if (json.getEtag() == null) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json.getBytes());
+        }
+        if (request.checkNotModified(json.getEtag())) {
+            return notModified(json.getEtag());
+        }
+        return ResponseEntity.ok()
+                .eTag(json.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json.getBytes());
+    }
+
+    // Listings are tagged with the catalog version, read before the body so the tag is never newer
+    private <T> ResponseEntity<T> listResponse(WebRequest request, Supplier<T> body) {
+        String etag = catalogVersion.etag();
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(body.get());
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
 }
@@ -0,0 +1,69 @@
+package com.shelve.bookcatalog.controller;
+
+import com.shelve.bookcatalog.dump.CatalogExporter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Controller for exporting the catalog as NDJSON
+ */
+@RestController
+@RequestMapping("/api/books/export")
+@RequiredArgsConstructor
+@Slf4j
+public class BookExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final CatalogExporter catalogExporter;
+
+    /**
+     * Stream the whole catalog, or only books updated since a point in time, one JSON object per line
+     * GET /api/books/export?updatedSince=2024-01-01T00:00:00&gzip=true
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        log.info("Exporting catalog{}{}", updatedSince != null ? " updated since " + updatedSince : "",
+                gzip ? " (gzip)" : "");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024)) {
+                    write(compressed, updatedSince);
+                }
+            } else {
+                write(out, updatedSince);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books.ndjson\"");
+        if (gzip) {
+            // Clients that don't decode transparently (curl without --compressed) save the .gz bytes as-is
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    private void write(OutputStream out, LocalDateTime updatedSince) throws IOException {
+        try {
+            catalogExporter.export(out, updatedSince);
+        } catch (IOException e) {
+            log.info("Catalog export aborted: {}", e.getMessage());
+            throw e;
+        }
+    }
+}
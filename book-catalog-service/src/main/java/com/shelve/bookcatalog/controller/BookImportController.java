@@ -1,12 +1,19 @@
 package com.shelve.bookcatalog.controller;
 
+import com.shelve.bookcatalog.dto.DumpLoadStatusResponse;
+import com.shelve.bookcatalog.dto.ImportJobResponse;
+import com.shelve.bookcatalog.dump.CatalogDumpLoader;
 import com.shelve.bookcatalog.entity.Book;
+import com.shelve.bookcatalog.service.BookService;
 import com.shelve.bookcatalog.service.ExternalBookService;
+import com.shelve.bookcatalog.service.ImportJobService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +27,9 @@ import java.util.Map;
 public class BookImportController {
 
     private final ExternalBookService externalBookService;
+    private final BookService bookService;
+    private final ImportJobService importJobService;
+    private final CatalogDumpLoader catalogDumpLoader;
 
     /**
      * Search Google Books API
@@ -61,15 +71,23 @@ public class BookImportController {
     }
 
     /**
-     * Get book by ISBN from Google Books
+     * Get book by ISBN from the catalog, or from Google Books without saving it if the catalog doesn't have it
      * GET /api/books/import/isbn/9780261103573
      */
     @GetMapping("/isbn/{isbn}")
     public ResponseEntity<Book> getByIsbn(@PathVariable String isbn) {
         log.info("Fetching book by ISBN: {}", isbn);
-        return externalBookService.getBookByIsbn(isbn)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        return ResponseEntity.ok(bookService.getBookByIsbn(isbn));
+    }
+
+    /**
+     * Import book by ISBN from Google Books unless the catalog already has it
+     * POST /api/books/import/isbn/9780261103573
+     */
+    @PostMapping("/isbn/{isbn}")
+    public ResponseEntity<Book> importByIsbn(@PathVariable String isbn) {
+        log.info("Importing book by ISBN: {}", isbn);
+        return ResponseEntity.ok(bookService.importBookByIsbn(isbn));
     }
 
     /**
@@ -94,44 +112,109 @@ public class BookImportController {
     }
 
     /**
-     * Import popular books from multiple genres
+     * Import popular books from multiple genres as a background job
      * POST /api/books/import/popular
      */
     @PostMapping("/popular")
-    public ResponseEntity<Map<String, Object>> importPopularBooks() {
-        log.info("Importing popular books from multiple genres");
-        int imported = externalBookService.importPopularBooks();
-        
-        return ResponseEntity.ok(Map.of(
-                "message", "Popular books import completed",
-                "totalImported", imported
-        ));
+    public ResponseEntity<ImportJobResponse> importPopularBooks() {
+        log.info("Submitting popular books import from multiple genres");
+        ImportJobResponse job = importJobService.submit(ExternalBookService.POPULAR_SUBJECTS, 20);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
     }
 
     /**
-     * Bulk import by multiple subjects
+     * Bulk import by multiple subjects as a background job; poll the returned job for progress
      * POST /api/books/import/bulk
      * Body: { "subjects": ["fiction", "science", "history"], "countPerSubject": 15 }
      */
     @PostMapping("/bulk")
-    public ResponseEntity<Map<String, Object>> bulkImport(
+    public ResponseEntity<ImportJobResponse> bulkImport(
             @RequestBody Map<String, Object> request) {
         @SuppressWarnings("unchecked")
         List<String> subjects = (List<String>) request.get("subjects");
         int countPerSubject = request.containsKey("countPerSubject") 
                 ? (Integer) request.get("countPerSubject") : 20;
-        
-        log.info("Bulk importing {} books each for {} subjects", countPerSubject, subjects.size());
-        
-        int totalImported = 0;
-        for (String subject : subjects) {
-            totalImported += externalBookService.importBooksBySubject(subject, countPerSubject);
+        if (subjects == null || subjects.isEmpty()) {
+            return ResponseEntity.badRequest().build();
         }
-        
-        return ResponseEntity.ok(Map.of(
-                "subjectsProcessed", subjects.size(),
-                "requestedPerSubject", countPerSubject,
-                "totalImported", totalImported
-        ));
+
+        log.info("Submitting bulk import of {} books each for {} subjects", countPerSubject, subjects.size());
+        ImportJobResponse job = importJobService.submit(subjects, countPerSubject);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    /**
+     * List recent import jobs
+     * GET /api/books/import/jobs
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<List<ImportJobResponse>> getImportJobs() {
+        return ResponseEntity.ok(importJobService.getJobs());
+    }
+
+    /**
+     * Import job progress, with per-subject counts and errors
+     * GET /api/books/import/jobs/{jobId}
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ImportJobResponse> getImportJob(@PathVariable String jobId) {
+        return importJobService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Cancel a running import job
+     * DELETE /api/books/import/jobs/{jobId}
+     */
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<ImportJobResponse> cancelImportJob(@PathVariable String jobId) {
+        return importJobService.cancel(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Load a gzip/zstd/plain NDJSON or Open Library dump file from the dump directory in the background
+     * POST /api/books/import/dump
+     * Body: { "file": "ol_dump_editions_latest.txt.gz" }
+     */
+    @PostMapping("/dump")
+    public ResponseEntity<?> loadDump(@RequestBody Map<String, String> request) throws IOException {
+        String file = request.get("file");
+        if (file == null || file.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "file is required"));
+        }
+        try {
+            log.info("Starting catalog dump load: {}", file);
+            return catalogDumpLoader.start(file)
+                    .<ResponseEntity<?>>map(status -> ResponseEntity.status(HttpStatus.ACCEPTED).body(status))
+                    .orElse(ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body(Map.of("message", "A dump load is already running")));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Progress of the current (or last) dump load
+     * GET /api/books/import/dump
+     */
+    @GetMapping("/dump")
+    public ResponseEntity<DumpLoadStatusResponse> getDumpLoadStatus() {
+        return catalogDumpLoader.getStatus()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Cancel the running dump load after its current batch
+     * DELETE /api/books/import/dump
+     */
+    @DeleteMapping("/dump")
+    public ResponseEntity<DumpLoadStatusResponse> cancelDumpLoad() {
+        return catalogDumpLoader.cancel()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 }
@@ -0,0 +1,44 @@
+package com.shelve.bookcatalog.controller;
+
+import com.shelve.bookcatalog.dto.RatingRebuildStatusResponse;
+import com.shelve.bookcatalog.rating.BookRatingAggregator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/books/ratings")
+@RequiredArgsConstructor
+@Slf4j
+public class BookRatingController {
+
+    private final BookRatingAggregator bookRatingAggregator;
+
+    /**
+     * Recompute every book's user rating totals from review-rating-service in the background
+     * POST /api/books/ratings/rebuild
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild() {
+        log.info("Starting book rating rebuild");
+        return bookRatingAggregator.startRebuild()
+                .<ResponseEntity<?>>map(status -> ResponseEntity.status(HttpStatus.ACCEPTED).body(status))
+                .orElse(ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(Map.of("message", "A rating rebuild is already running")));
+    }
+
+    /**
+     * Progress of the current (or last) rating rebuild
+     * GET /api/books/ratings/rebuild
+     */
+    @GetMapping("/rebuild")
+    public ResponseEntity<RatingRebuildStatusResponse> getRebuildStatus() {
+        return bookRatingAggregator.getRebuildStatus()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
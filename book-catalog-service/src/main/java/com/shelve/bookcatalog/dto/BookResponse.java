@@ -1,5 +1,6 @@
 package com.shelve.bookcatalog.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,6 +17,8 @@ public class BookResponse {
     private String title;
     private String author;
     private String isbn;
+    // Only loaded on detail endpoints; list endpoints serve summaries without it
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String description;
     private String coverUrl;
     private String genre;
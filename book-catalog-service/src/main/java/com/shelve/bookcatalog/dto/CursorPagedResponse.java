@@ -0,0 +1,27 @@
+package com.shelve.bookcatalog.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPagedResponse<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+
+    // Opaque; pass back as ?cursor= to get the next page
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    // Only computed when requested with includeTotal=true
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+}
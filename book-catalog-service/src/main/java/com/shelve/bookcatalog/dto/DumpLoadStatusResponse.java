@@ -0,0 +1,30 @@
+package com.shelve.bookcatalog.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DumpLoadStatusResponse {
+    private String file;
+    private String status; // RUNNING, COMPLETED, CANCELLED, FAILED
+    private long bytesRead;
+    private long totalBytes;
+    private double percentComplete;
+    private long linesRead;
+    private long insertedCount;
+    private long duplicateCount;
+    private long invalidCount;
+    private long linesPerSecond;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,21 @@
+package com.shelve.bookcatalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrichmentStatusResponse {
+    private String token;
+    private String query;
+    private String status; // PENDING, COMPLETED, FAILED
+    private int importedCount;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,15 @@
+package com.shelve.bookcatalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetValueResponse {
+    private String value;
+    private long count;
+}
@@ -0,0 +1,16 @@
+package com.shelve.bookcatalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenreResponse {
+    private Integer id;
+    private String name;
+    private long bookCount;
+}
@@ -0,0 +1,43 @@
+package com.shelve.bookcatalog.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobResponse {
+    private String jobId;
+    private String status; // QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED
+    private int countPerSubject;
+    private int totalSubjects;
+    private int finishedSubjects;
+    private int fetchedCount;
+    private int importedCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private List<SubjectProgress> subjects;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SubjectProgress {
+        private String subject;
+        private String status; // PENDING, FETCHING, FETCHED, COMPLETED, CANCELLED, FAILED
+        private int fetchedCount;
+        private int importedCount;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String error;
+    }
+}
@@ -1,11 +1,13 @@
 package com.shelve.bookcatalog.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
@@ -18,4 +20,16 @@ public class PagedResponse<T> {
     private long totalElements;
     private int totalPages;
     private boolean last;
+
+    // Set on search responses while external results are being backfilled
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String enrichmentToken;
+
+    // Set on search responses answered for a spelling-corrected query ("did you mean")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String correctedQuery;
+
+    // Set on faceted responses: each facet's values with their counts among the matching books
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, List<FacetValueResponse>> facets;
 }
@@ -0,0 +1,24 @@
+package com.shelve.bookcatalog.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingRebuildStatusResponse {
+    private String status; // RUNNING, COMPLETED, FAILED
+    private int partitions;
+    private int completedPartitions;
+    private long updatedBooks;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
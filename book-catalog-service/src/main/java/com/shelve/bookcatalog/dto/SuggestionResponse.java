@@ -0,0 +1,20 @@
+package com.shelve.bookcatalog.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SuggestionResponse {
+    private String text;
+    // TITLE or AUTHOR
+    private String type;
+    // Set for TITLE suggestions
+    private String bookId;
+}
@@ -0,0 +1,514 @@
+package com.shelve.bookcatalog.dump;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.ZstdInputStream;
+import com.shelve.bookcatalog.dto.DumpLoadStatusResponse;
+import com.shelve.bookcatalog.entity.Book;
+import com.shelve.bookcatalog.event.CatalogReloadedEvent;
+import com.shelve.bookcatalog.service.BookBatchWriter;
+import com.shelve.bookcatalog.service.ExternalBookService;
+import com.shelve.bookcatalog.service.GenreCatalog;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Bulk-loads books from line-delimited dump files: Open Library works/editions dumps
+ * (TSV rows ending in the record JSON) or NDJSON, optionally gzip or zstd compressed.
+ * The file is streamed line by line and mapped with the same rules as live Open Library
+ * results. Duplicates within the file are dropped against a fixed-size fingerprint set.
+ * Each batch is streamed with PostgreSQL COPY into a temp staging table, then inserted
+ * into {@code books} unless a book with the same ISBN or title/author already exists.
+ *
+ * Only files under {@code book-import.dump.dir} can be loaded, and one load runs at a time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogDumpLoader {
+
+    private static final String STAGING_TABLE = "book_load_staging";
+    private static final String COLUMNS = "id, title, author, isbn, description, cover_url, genre, genre_id, published_date, "
+            + "page_count, publisher, language, average_rating, ratings_count, created_at, updated_at";
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+    private static final Pattern YEAR = Pattern.compile("\\b(1\\d{3}|20\\d{2})\\b");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExternalBookService externalBookService;
+    private final GenreCatalog genreCatalog;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${book-import.dump.dir:${java.io.tmpdir}/shelve-dumps}")
+    private String dumpDir;
+
+    @Value("${book-import.dump.batch-size:50000}")
+    private int batchSize;
+
+    // Fingerprints kept for in-file dedup (two per book, at most about 21 bytes each); beyond
+    // that the database does all of it
+    @Value("${book-import.dump.dedup-capacity:4000000}")
+    private int dedupCapacity;
+
+    private final AtomicReference<DumpLoad> current = new AtomicReference<>();
+
+    /**
+     * Start loading a dump file in the background.
+     *
+     * @param file path relative to the dump directory
+     * @return the new load's status, or empty if another load is still running
+     * @throws IllegalArgumentException if the file is outside the dump directory or missing
+     */
+    public Optional<DumpLoadStatusResponse> start(String file) throws IOException {
+        Path root = Path.of(dumpDir).toAbsolutePath().normalize();
+        Path path = root.resolve(file).normalize();
+        if (!path.startsWith(root) || !Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("No dump file '" + file + "' in " + root);
+        }
+
+        DumpLoad running = current.get();
+        if (running != null && running.completedAt == null) {
+            return Optional.empty();
+        }
+        DumpLoad load = new DumpLoad(path, Files.size(path));
+        if (!current.compareAndSet(running, load)) {
+            return Optional.empty();
+        }
+
+        Thread loader = new Thread(() -> run(load), "catalog-dump-loader");
+        loader.setDaemon(true);
+        loader.start();
+        return Optional.of(toResponse(load));
+    }
+
+    public Optional<DumpLoadStatusResponse> getStatus() {
+        return Optional.ofNullable(current.get()).map(this::toResponse);
+    }
+
+    /**
+     * Stop the running load after its current batch; batches already written stay loaded.
+     */
+    public Optional<DumpLoadStatusResponse> cancel() {
+        DumpLoad load = current.get();
+        if (load == null) {
+            return Optional.empty();
+        }
+        load.cancelled = true;
+        return Optional.of(toResponse(load));
+    }
+
+    private void run(DumpLoad load) {
+        log.info("Loading catalog dump {} ({} MB)", load.path, load.totalBytes / (1024 * 1024));
+        FingerprintSet seen = new FingerprintSet(dedupCapacity);
+        List<Book> batch = new ArrayList<>();
+
+        try (CountingInputStream counting = new CountingInputStream(Files.newInputStream(load.path));
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(decompress(counting), StandardCharsets.UTF_8), COPY_BUFFER_SIZE)) {
+            load.input = counting;
+            String line;
+            while (!load.cancelled && (line = reader.readLine()) != null) {
+                load.linesRead++;
+                Optional<Book> book = parse(line);
+                if (book.isEmpty()) {
+                    load.invalid++;
+                } else if (!isNew(seen, book.get())) {
+                    load.duplicates++;
+                } else {
+                    batch.add(book.get());
+                }
+                if (batch.size() >= batchSize) {
+                    writeBatch(load, batch);
+                }
+            }
+            if (!load.cancelled && !batch.isEmpty()) {
+                writeBatch(load, batch);
+            }
+            if (seen.isFull()) {
+                log.info("Dump dedup set reached its capacity; remaining duplicates were resolved by the database");
+            }
+            load.finish(load.cancelled ? "CANCELLED" : "COMPLETED", null);
+        } catch (Exception e) {
+            log.error("Catalog dump load of {} failed: {}", load.path, e.getMessage(), e);
+            load.finish("FAILED", e.getMessage());
+        }
+
+        log.info("Catalog dump {} {}: {} lines, {} books inserted, {} duplicates, {} invalid in {} s",
+                load.path.getFileName(), load.status.toLowerCase(), load.linesRead, load.inserted,
+                load.duplicates, load.invalid, Duration.between(load.startedAt, load.completedAt).toSeconds());
+        if (load.inserted > 0) {
+            eventPublisher.publishEvent(new CatalogReloadedEvent());
+        }
+    }
+
+    private void writeBatch(DumpLoad load, List<Book> batch) {
+        int inserted = copyBatch(batch);
+        load.inserted += inserted;
+        load.duplicates += batch.size() - inserted;
+        meterRegistry.counter("catalog.dump.books", "outcome", "inserted").increment(inserted);
+        meterRegistry.counter("catalog.dump.books", "outcome", "skipped").increment(batch.size() - inserted);
+        batch.clear();
+
+        log.info("Catalog dump {}: {}% read, {} lines ({}/s), {} books inserted",
+                load.path.getFileName(), String.format("%.1f", percentComplete(load)),
+                load.linesRead, linesPerSecond(load), load.inserted);
+    }
+
+    /**
+     * COPY the batch into the staging table and move over the books not already in the catalog,
+     * all in one transaction so the staging rows are dropped on commit.
+     *
+     * @return the number of books inserted into {@code books}
+     */
+    private int copyBatch(List<Book> batch) {
+        Integer inserted = transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TEMP TABLE IF NOT EXISTS " + STAGING_TABLE
+                        + " (LIKE books INCLUDING DEFAULTS) ON COMMIT DELETE ROWS");
+            }
+            copyIn(connection, batch);
+            try (Statement statement = connection.createStatement()) {
+                return statement.executeUpdate("INSERT INTO books (" + COLUMNS + ") "
+                        + "SELECT " + COLUMNS + " FROM " + STAGING_TABLE + " s "
+                        + "WHERE NOT EXISTS (SELECT 1 FROM books b WHERE b.isbn = s.isbn) "
+                        // Probes idx_books_lower_title_author (CatalogIndexInitializer)
+                        + "AND NOT EXISTS (SELECT 1 FROM books b "
+                        + "WHERE LOWER(b.title) = LOWER(s.title) AND LOWER(b.author) = LOWER(s.author)) "
+                        // Books of the batch sharing an ISBN the dedup set no longer tracks
+                        + "ON CONFLICT DO NOTHING");
+            }
+        }));
+        return inserted != null ? inserted : 0;
+    }
+
+    private void copyIn(Connection connection, List<Book> batch) throws SQLException {
+        CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY " + STAGING_TABLE + " (" + COLUMNS + ") FROM STDIN WITH (FORMAT csv)");
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(COPY_BUFFER_SIZE * 2);
+            StringBuilder row = new StringBuilder(1024);
+            LocalDateTime now = LocalDateTime.now();
+            for (Book book : batch) {
+                row.setLength(0);
+                genreCatalog.assign(book);
+                appendRow(row, book, now);
+                byte[] bytes = row.toString().getBytes(StandardCharsets.UTF_8);
+                buffer.write(bytes, 0, bytes.length);
+                if (buffer.size() >= COPY_BUFFER_SIZE) {
+                    copy.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+                    buffer.reset();
+                }
+            }
+            if (buffer.size() > 0) {
+                copy.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+            }
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+
+    private void appendRow(StringBuilder row, Book book, LocalDateTime now) {
+        appendField(row, UUID.randomUUID().toString());
+        appendField(row, book.getTitle());
+        appendField(row, book.getAuthor());
+        appendField(row, book.getIsbn());
+        appendField(row, book.getDescription());
+        appendField(row, book.getCoverUrl());
+        appendField(row, book.getGenre());
+        appendField(row, book.getGenreId() != null ? book.getGenreId().toString() : null);
+        appendField(row, book.getPublishedDate() != null ? book.getPublishedDate().toString() : null);
+        appendField(row, book.getPageCount() != null ? book.getPageCount().toString() : null);
+        appendField(row, book.getPublisher());
+        appendField(row, book.getLanguage());
+        appendField(row, String.valueOf(book.getAverageRating() != null ? book.getAverageRating() : 0.0));
+        appendField(row, String.valueOf(book.getRatingsCount() != null ? book.getRatingsCount() : 0));
+        appendField(row, now.toString());
+        appendField(row, now.toString());
+        row.setCharAt(row.length() - 1, '\n');
+    }
+
+    // CSV: quoted values with doubled quotes; an unquoted empty field is NULL
+    private void appendField(StringBuilder row, String value) {
+        if (value != null) {
+            row.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+        row.append(',');
+    }
+
+    private boolean isNew(FingerprintSet seen, Book book) {
+        String isbn = canonicalizeIsbn(book);
+        if (isbn != null && !seen.add("isbn:" + isbn)) {
+            return false;
+        }
+        return seen.add("key:" + BookBatchWriter.dedupKey(book.getTitle(), book.getAuthor()));
+    }
+
+    // The book is loaded without an ISBN rather than skipped
+    private String canonicalizeIsbn(Book book) {
+        String raw = book.getIsbn();
+        String isbn = BookBatchWriter.normalizeIsbn(raw);
+        if (isbn == null && raw != null && !raw.isBlank()) {
+            log.debug("Dropping invalid ISBN '{}' of dump book '{}'", raw, book.getTitle());
+            meterRegistry.counter("book.import.invalid.isbn", "source", "dump").increment();
+        }
+        book.setIsbn(isbn);
+        return isbn;
+    }
+
+    private Optional<Book> parse(String line) {
+        if (line.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            // Open Library dump rows are tab-separated with the record JSON in the last column
+            String json = line.charAt(0) == '{' ? line : line.substring(line.lastIndexOf('\t') + 1);
+            JsonNode node = objectMapper.readTree(json);
+            if (node.path("author").isTextual()) {
+                return fromCatalogExport(node);
+            }
+            return externalBookService.convertOpenLibraryToEntity(toOpenLibraryDoc(node));
+        } catch (IOException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Open Library search results map directly; dump records carry the same data under
+     * different names (authors, isbn_13/isbn_10, covers, publish_date, subjects, number_of_pages).
+     */
+    private ExternalBookService.OpenLibraryDoc toOpenLibraryDoc(JsonNode node) throws IOException {
+        ExternalBookService.OpenLibraryDoc doc = objectMapper.treeToValue(node, ExternalBookService.OpenLibraryDoc.class);
+        if (doc.getAuthorName() == null) {
+            List<String> authors = texts(node.path("authors"), "name");
+            if (authors.isEmpty() && node.path("by_statement").isTextual()) {
+                authors = List.of(node.get("by_statement").asText());
+            }
+            doc.setAuthorName(authors.isEmpty() ? null : authors);
+        }
+        if (doc.getIsbn() == null) {
+            List<String> isbns = new ArrayList<>(texts(node.path("isbn_13"), null));
+            isbns.addAll(texts(node.path("isbn_10"), null));
+            doc.setIsbn(isbns.isEmpty() ? null : isbns);
+        }
+        if (doc.getCoverId() == null) {
+            for (JsonNode cover : node.path("covers")) {
+                if (cover.asLong() > 0) {
+                    doc.setCoverId(cover.asLong());
+                    break;
+                }
+            }
+        }
+        if (doc.getFirstPublishYear() == null) {
+            String date = node.path("first_publish_date").asText(node.path("publish_date").asText(""));
+            Matcher year = YEAR.matcher(date);
+            if (year.find()) {
+                doc.setFirstPublishYear(Integer.parseInt(year.group(1)));
+            }
+        }
+        if (doc.getSubject() == null) {
+            List<String> subjects = texts(node.path("subjects"), null);
+            doc.setSubject(subjects.isEmpty() ? null : subjects);
+        }
+        if (doc.getNumberOfPagesMedian() == null && node.path("number_of_pages").canConvertToInt()) {
+            doc.setNumberOfPagesMedian(node.get("number_of_pages").asInt());
+        }
+        return doc;
+    }
+
+    /**
+     * Our own catalog export format (one book response per line).
+     */
+    private Optional<Book> fromCatalogExport(JsonNode node) {
+        String title = node.path("title").asText(null);
+        if (title == null || title.isBlank()) {
+            return Optional.empty();
+        }
+        LocalDate publishedDate = null;
+        if (node.path("publishedDate").isTextual()) {
+            try {
+                publishedDate = LocalDate.parse(node.get("publishedDate").asText());
+            } catch (RuntimeException ignored) {
+                // Leave the date empty rather than drop the book
+            }
+        }
+        return Optional.of(Book.builder()
+                .title(truncate(title, 490))
+                .author(truncate(node.path("author").asText("Unknown"), 490))
+                .isbn(truncate(node.path("isbn").asText(null), 20))
+                .description(node.path("description").asText(null))
+                .coverUrl(truncate(node.path("coverUrl").asText(null), 990))
+                .genre(truncate(node.path("genre").asText("General"), 190))
+                .publishedDate(publishedDate)
+                .pageCount(node.path("pageCount").canConvertToInt() ? node.get("pageCount").asInt() : null)
+                .publisher(truncate(node.path("publisher").asText(null), 490))
+                .language(truncate(node.path("language").asText(null), 10))
+                .averageRating(node.path("averageRating").asDouble(0.0))
+                .ratingsCount(node.path("ratingsCount").asInt(0))
+                .build());
+    }
+
+    private List<String> texts(JsonNode array, String field) {
+        List<String> values = new ArrayList<>();
+        for (JsonNode element : array) {
+            JsonNode value = field == null ? element : element.path(field);
+            if (value.isTextual() && !value.asText().isBlank()) {
+                values.add(value.asText());
+            }
+        }
+        return values;
+    }
+
+    private String truncate(String str, int maxLength) {
+        if (str == null) return null;
+        return str.length() > maxLength ? str.substring(0, maxLength - 3) + "..." : str;
+    }
+
+    private InputStream decompress(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, COPY_BUFFER_SIZE);
+        buffered.mark(4);
+        byte[] magic = buffered.readNBytes(4);
+        buffered.reset();
+        if (magic.length >= 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b) {
+            return new GZIPInputStream(buffered, COPY_BUFFER_SIZE);
+        }
+        if (magic.length == 4 && (magic[0] & 0xff) == 0x28 && (magic[1] & 0xff) == 0xb5
+                && (magic[2] & 0xff) == 0x2f && (magic[3] & 0xff) == 0xfd) {
+            return new ZstdInputStream(buffered);
+        }
+        return buffered;
+    }
+
+    private double percentComplete(DumpLoad load) {
+        if (load.totalBytes == 0) {
+            return load.completedAt != null ? 100.0 : 0.0;
+        }
+        long read = load.input != null ? load.input.count : 0;
+        return Math.min(100.0, read * 100.0 / load.totalBytes);
+    }
+
+    private long linesPerSecond(DumpLoad load) {
+        LocalDateTime end = load.completedAt != null ? load.completedAt : LocalDateTime.now();
+        long millis = Math.max(1, Duration.between(load.startedAt, end).toMillis());
+        return load.linesRead * 1000 / millis;
+    }
+
+    private DumpLoadStatusResponse toResponse(DumpLoad load) {
+        return DumpLoadStatusResponse.builder()
+                .file(load.path.getFileName().toString())
+                .status(load.status)
+                .bytesRead(load.input != null ? load.input.count : 0)
+                .totalBytes(load.totalBytes)
+                .percentComplete(Math.round(percentComplete(load) * 10) / 10.0)
+                .linesRead(load.linesRead)
+                .insertedCount(load.inserted)
+                .duplicateCount(load.duplicates)
+                .invalidCount(load.invalid)
+                .linesPerSecond(linesPerSecond(load))
+                .error(load.error)
+                .startedAt(load.startedAt)
+                .completedAt(load.completedAt)
+                .build();
+    }
+
+    private static class DumpLoad {
+        private final Path path;
+        private final long totalBytes;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile String status = "RUNNING";
+        private volatile boolean cancelled;
+        private volatile CountingInputStream input;
+        // Written only by the loader thread
+        private volatile long linesRead;
+        private volatile long inserted;
+        private volatile long duplicates;
+        private volatile long invalid;
+        private volatile String error;
+        private volatile LocalDateTime completedAt;
+
+        DumpLoad(Path path, long totalBytes) {
+            this.path = path;
+            this.totalBytes = totalBytes;
+        }
+
+        void finish(String finalStatus, String message) {
+            status = finalStatus;
+            error = message;
+            completedAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Counts compressed bytes read, for progress against the file size.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
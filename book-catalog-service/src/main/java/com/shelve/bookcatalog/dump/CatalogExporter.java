@@ -0,0 +1,146 @@
+package com.shelve.bookcatalog.dump;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Streams the catalog as newline-delimited JSON, one book per line, in the same shape as
+ * {@code BookResponse} plus {@code updatedAt}, so exports can be loaded back with {@link CatalogDumpLoader}.
+ *
+ * Rows come from a server-side cursor ({@code fetch-size} rows per round trip, inside a read-only
+ * transaction) and are written straight to the response, so memory stays flat however large the
+ * catalog is. Incremental pulls pass {@code updatedSince} and get rows in (updatedAt, id) order,
+ * so the last line's {@code updatedAt} can be used as the next pull's starting point.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogExporter {
+
+    private static final String SELECT = "SELECT id, title, author, isbn, description, cover_url, genre, "
+            + "published_date, page_count, publisher, language, average_rating, ratings_count, updated_at FROM books";
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private final DataSource dataSource;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${book-import.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Write every book (or every book updated at or after {@code updatedSince}) to {@code out}.
+     *
+     * @return the number of books written
+     */
+    public long export(OutputStream out, LocalDateTime updatedSince) throws IOException {
+        JdbcTemplate cursor = new JdbcTemplate(dataSource);
+        cursor.setFetchSize(fetchSize);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Counter exported = meterRegistry.counter("catalog.export.books");
+        long startedAt = System.currentTimeMillis();
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            // The caller owns the stream (and finishes the gzip trailer)
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(new SerializedString("\n"));
+            RowWriter writer = new RowWriter(json, exported);
+            readOnly.executeWithoutResult(status -> {
+                if (updatedSince == null) {
+                    cursor.query(SELECT, writer);
+                } else {
+                    cursor.query(SELECT + " WHERE updated_at >= ? ORDER BY updated_at, id", writer,
+                            Timestamp.valueOf(updatedSince));
+                }
+            });
+            if (writer.rows > 0) {
+                json.writeRaw('\n');
+            }
+            log.info("Exported {} books in {} ms{}", writer.rows, System.currentTimeMillis() - startedAt,
+                    updatedSince != null ? " updated since " + updatedSince : "");
+            return writer.rows;
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-export
+            throw e.getCause();
+        }
+    }
+
+    private static class RowWriter implements RowCallbackHandler {
+        private final JsonGenerator json;
+        private final Counter exported;
+        private long rows;
+
+        RowWriter(JsonGenerator json, Counter exported) {
+            this.json = json;
+            this.exported = exported;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                json.writeStartObject();
+                json.writeStringField("id", rs.getString("id"));
+                writeString("title", rs.getString("title"));
+                writeString("author", rs.getString("author"));
+                writeString("isbn", rs.getString("isbn"));
+                writeString("description", rs.getString("description"));
+                writeString("coverUrl", rs.getString("cover_url"));
+                writeString("genre", rs.getString("genre"));
+                Date publishedDate = rs.getDate("published_date");
+                if (publishedDate != null) {
+                    json.writeStringField("publishedDate", publishedDate.toLocalDate().toString());
+                }
+                int pageCount = rs.getInt("page_count");
+                if (!rs.wasNull()) {
+                    json.writeNumberField("pageCount", pageCount);
+                }
+                writeString("publisher", rs.getString("publisher"));
+                writeString("language", rs.getString("language"));
+                json.writeNumberField("averageRating", rs.getDouble("average_rating"));
+                json.writeNumberField("ratingsCount", rs.getInt("ratings_count"));
+                Timestamp updatedAt = rs.getTimestamp("updated_at");
+                if (updatedAt != null) {
+                    json.writeStringField("updatedAt", updatedAt.toLocalDateTime().toString());
+                }
+                json.writeEndObject();
+
+                rows++;
+                exported.increment();
+                if (rows % FLUSH_EVERY_ROWS == 0) {
+                    json.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeString(String field, String value) throws IOException {
+            if (value != null) {
+                json.writeStringField(field, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.shelve.bookcatalog.dump;
+
+/**
+ * Open-addressing set of 64-bit string fingerprints, instead of full Strings in a HashSet.
+ * The table holds one long per slot at a load factor of at most 3/4, so 11 to 21 bytes per
+ * entry, and doubles as entries arrive: a small dump only allocates what it uses. Once it
+ * holds maxSize entries it stops remembering new ones and reports them as unseen, leaving
+ * the remaining dedup to the database.
+ */
+class FingerprintSet {
+
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final int maxSize;
+    private long[] slots;
+    private int mask;
+    private int size;
+
+    FingerprintSet(int maxSize) {
+        this.maxSize = Math.min(maxSize, MAX_CAPACITY / 4 * 3);
+        this.slots = new long[INITIAL_CAPACITY];
+        this.mask = INITIAL_CAPACITY - 1;
+    }
+
+    /**
+     * @return false if the value was already present
+     */
+    boolean add(String value) {
+        long fingerprint = fingerprint(value);
+        int slot = (int) fingerprint & mask;
+        while (slots[slot] != 0) {
+            if (slots[slot] == fingerprint) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size < maxSize) {
+            slots[slot] = fingerprint;
+            size++;
+            if (size * 4L > slots.length * 3L && size < maxSize) {
+                grow();
+            }
+        }
+        return true;
+    }
+
+    boolean isFull() {
+        return size >= maxSize;
+    }
+
+    private void grow() {
+        long[] old = slots;
+        slots = new long[old.length << 1];
+        mask = slots.length - 1;
+        for (long fingerprint : old) {
+            if (fingerprint != 0) {
+                int slot = (int) fingerprint & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = fingerprint;
+            }
+        }
+    }
+
+    // FNV-1a over the UTF-16 chars, finished with the murmur3 mixer; 0 is reserved for empty slots
+    private static long fingerprint(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+}
@@ -5,13 +5,29 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+    // (sort key, id) pairs backing keyset scrolling of the listing endpoints
+    @Index(name = "idx_books_title_id", columnList = "title, id"),
+    @Index(name = "idx_books_author_id", columnList = "author, id"),
+    @Index(name = "idx_books_ratings_count_id", columnList = "ratingsCount, id"),
+    @Index(name = "idx_books_created_at_id", columnList = "createdAt, id"),
+    @Index(name = "idx_books_average_rating_id", columnList = "averageRating, id"),
+    @Index(name = "idx_books_genre_id_average_rating_id", columnList = "genreId, averageRating, id"),
+    // Incremental exports (updatedSince)
+    @Index(name = "idx_books_updated_at_id", columnList = "updatedAt, id"),
+    // year: clauses of qualified searches; isbn is covered by the unique index IsbnIndexInitializer creates
+    @Index(name = "idx_books_published_date_id", columnList = "publishedDate, id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @Builder
 @NoArgsConstructor
@@ -28,6 +44,7 @@ public class Book {
     @Column(nullable = false, length = 500)
     private String author;
     
+    // Canonical ISBN-13 (see Isbns), unique where present
     @Column(length = 20)
     private String isbn;
     
@@ -37,9 +54,12 @@ public class Book {
     @Column(length = 1000)
     private String coverUrl;
     
+    // Canonical genre name, denormalized from genres for responses and search
     @Column(nullable = false, length = 200)
     private String genre;
     
+    private Integer genreId;
+    
     private LocalDate publishedDate;
     
     private Integer pageCount;
@@ -56,6 +76,16 @@ public class Book {
     @Column(nullable = false)
     private Integer ratingsCount;
     
+    // Rating as imported from the provider, kept once Shelve's own ratings are blended in
+    private Double externalAverageRating;
+    
+    private Integer externalRatingsCount;
+    
+    // Totals of Shelve users' ratings, maintained from review-rating-service events
+    private Long userRatingSum;
+    
+    private Integer userRatingCount;
+    
     @Column(nullable = false)
     private LocalDateTime createdAt;
     
@@ -64,6 +94,7 @@ public class Book {
     
     @PrePersist
     protected void onCreate() {
+        isbn = canonicalIsbn();
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
         if (averageRating == null) averageRating = 0.0;
@@ -72,6 +103,13 @@ public class Book {
     
     @PreUpdate
     protected void onUpdate() {
+        isbn = canonicalIsbn();
         updatedAt = LocalDateTime.now();
     }
+    
+    // Normalizes only: ISBNs are validated where they enter (createBook, provider mapping, dump
+    // loads), and a legacy value not yet migrated must not fail unrelated updates of the book
+    private String canonicalIsbn() {
+        return Isbns.toIsbn13(isbn);
+    }
 }
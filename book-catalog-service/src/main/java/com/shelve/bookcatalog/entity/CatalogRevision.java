@@ -0,0 +1,26 @@
+package com.shelve.bookcatalog.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single-row counter every instance bumps after changing the catalog, so listing ETags change
+ * on all instances, not only the one that took the write. Read and incremented with plain SQL
+ * by {@link com.shelve.bookcatalog.cache.CatalogVersion}.
+ */
+@Entity
+@Table(name = "catalog_revision")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogRevision {
+
+    @Id
+    private Integer id;
+
+    private long revision;
+}
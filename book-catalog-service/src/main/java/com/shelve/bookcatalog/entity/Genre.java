@@ -0,0 +1,27 @@
+package com.shelve.bookcatalog.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A canonical genre. Books reference it by {@code genreId}; provider categories are
+ * mapped onto it through {@link GenreAlias}es.
+ */
+@Entity
+@Table(name = "genres")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Genre {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, unique = true, length = 200)
+    private String name;
+}
@@ -0,0 +1,27 @@
+package com.shelve.bookcatalog.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Maps a normalized category string (as sent by Google Books, Open Library or a client)
+ * to its canonical {@link Genre}.
+ */
+@Entity
+@Table(name = "genre_aliases")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenreAlias {
+
+    @Id
+    @Column(length = 200)
+    private String alias;
+
+    @Column(nullable = false)
+    private Integer genreId;
+}
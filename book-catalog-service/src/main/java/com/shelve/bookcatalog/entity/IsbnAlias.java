@@ -0,0 +1,32 @@
+package com.shelve.bookcatalog.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * A scanned ISBN (canonical ISBN-13) that Google Books resolved to a book already stored under
+ * another ISBN or matched by title and author, e.g. another edition of the same work. The catalog
+ * keeps one book per work; the alias lets the next scan of this ISBN find it locally.
+ */
+@Entity
+@Table(name = "book_isbn_aliases", indexes = {
+    @Index(name = "idx_book_isbn_aliases_book_id", columnList = "bookId")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IsbnAlias {
+
+    @Id
+    @Column(length = 20)
+    private String isbn;
+
+    @Column(nullable = false)
+    private UUID bookId;
+}
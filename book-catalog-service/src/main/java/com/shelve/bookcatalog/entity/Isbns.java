@@ -0,0 +1,84 @@
+package com.shelve.bookcatalog.entity;
+
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Canonical form of {@link Book#getIsbn()}: ISBN-13 digits only. Providers hand out both ISBN-10
+ * and ISBN-13 with assorted hyphenation, so every write and every lookup goes through
+ * {@link #toIsbn13} and equal books compare equal.
+ */
+public final class Isbns {
+
+    /**
+     * Name of the unique index on {@code books.isbn}, created by IsbnIndexInitializer.
+     */
+    public static final String UNIQUE_INDEX = "uk_books_isbn";
+
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s-]");
+    private static final Pattern ISBN_10 = Pattern.compile("\\d{9}[\\dX]");
+    private static final Pattern ISBN_13 = Pattern.compile("97[89]\\d{10}");
+
+    private Isbns() {
+    }
+
+    /**
+     * The ISBN-13 for an ISBN-10 or ISBN-13 (spaces and hyphens ignored), or null if the value
+     * is neither or its check digit is wrong.
+     */
+    public static String toIsbn13(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        String digits = SEPARATORS.matcher(isbn).replaceAll("").toUpperCase(Locale.ROOT);
+        if (ISBN_13.matcher(digits).matches()) {
+            return checkDigit13(digits) == digits.charAt(12) ? digits : null;
+        }
+        if (ISBN_10.matcher(digits).matches() && isValidIsbn10(digits)) {
+            String prefixed = "978" + digits.substring(0, 9);
+            return prefixed + checkDigit13(prefixed);
+        }
+        return null;
+    }
+
+    /**
+     * Whether the failure is a write of a book with an ISBN already in the catalog, as opposed
+     * to a violation of any other constraint. Walks the cause chain for the constraint name
+     * reported by Hibernate or the Postgres driver.
+     */
+    public static boolean isDuplicateIsbn(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof org.hibernate.exception.ConstraintViolationException violation
+                    && UNIQUE_INDEX.equals(violation.getConstraintName())) {
+                return true;
+            }
+            if (cause instanceof PSQLException psql) {
+                ServerErrorMessage message = psql.getServerErrorMessage();
+                return message != null && UNIQUE_INDEX.equals(message.getConstraint());
+            }
+        }
+        return false;
+    }
+
+    // Weights 1 and 3 alternating over the first 12 digits
+    private static char checkDigit13(String digits) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+
+    // Weights 10 down to 1, X standing for 10; the sum must be divisible by 11
+    private static boolean isValidIsbn10(String digits) {
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            char c = digits.charAt(i);
+            sum += (c == 'X' ? 10 : c - '0') * (10 - i);
+        }
+        return sum % 11 == 0;
+    }
+}
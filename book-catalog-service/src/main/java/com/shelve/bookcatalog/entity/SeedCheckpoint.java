@@ -0,0 +1,31 @@
+package com.shelve.bookcatalog.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A finished step of the startup catalog seeding, so a restarted service resumes
+ * seeding where it stopped instead of querying the external APIs again.
+ */
+@Entity
+@Table(name = "catalog_seed_checkpoints")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeedCheckpoint {
+
+    @Id
+    @Column(length = 300)
+    private String step;
+
+    private int importedCount;
+
+    @Column(nullable = false)
+    private LocalDateTime completedAt;
+}
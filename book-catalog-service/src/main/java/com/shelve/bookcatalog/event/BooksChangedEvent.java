@@ -0,0 +1,35 @@
+package com.shelve.bookcatalog.event;
+
+import com.shelve.bookcatalog.entity.Book;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published whenever books are created or updated, so in-memory structures
+ * (search index, caches) can stay in sync with the database.
+ */
+@Getter
+@AllArgsConstructor
+public class BooksChangedEvent {
+    private final List<Book> books;
+    // True when the books were newly inserted rather than updated
+    private final boolean created;
+
+    public static BooksChangedEvent created(List<Book> books) {
+        return new BooksChangedEvent(books, true);
+    }
+
+    public static BooksChangedEvent created(Book book) {
+        return created(List.of(book));
+    }
+
+    public static BooksChangedEvent updated(List<Book> books) {
+        return new BooksChangedEvent(books, false);
+    }
+
+    public static BooksChangedEvent updated(Book book) {
+        return updated(List.of(book));
+    }
+}
@@ -0,0 +1,8 @@
+package com.shelve.bookcatalog.event;
+
+/**
+ * Published after books were written outside JPA (bulk dump loads), so in-memory
+ * structures that normally follow {@link BooksChangedEvent} rebuild from the database.
+ */
+public class CatalogReloadedEvent {
+}
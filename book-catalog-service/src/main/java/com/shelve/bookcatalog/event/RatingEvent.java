@@ -0,0 +1,25 @@
+package com.shelve.bookcatalog.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A rating published by review-rating-service on {@code rating.exchange}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingEvent {
+    private String userId;
+    private String bookId;
+    private Integer score;
+    private Integer previousScore; // set on UPDATED
+    private boolean liked;
+    private String eventType; // CREATED, UPDATED
+    private LocalDateTime timestamp;
+}
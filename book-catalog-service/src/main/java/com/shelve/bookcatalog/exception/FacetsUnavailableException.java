@@ -0,0 +1,7 @@
+package com.shelve.bookcatalog.exception;
+
+public class FacetsUnavailableException extends RuntimeException {
+    public FacetsUnavailableException(String message) {
+        super(message);
+    }
+}
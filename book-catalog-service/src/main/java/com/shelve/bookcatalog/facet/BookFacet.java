@@ -0,0 +1,50 @@
+package com.shelve.bookcatalog.facet;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * The fields search results can be filtered and counted by, with how a book's value is derived.
+ */
+public enum BookFacet {
+    GENRE("genre"),
+    LANGUAGE("language"),
+    DECADE("decade"),
+    PAGES("pages");
+
+    private final String param;
+
+    BookFacet(String param) {
+        this.param = param;
+    }
+
+    /**
+     * Name of the facet in request parameters and responses.
+     */
+    public String getParam() {
+        return param;
+    }
+
+    /**
+     * The book's value for every facet, in declaration order; null where the book has none.
+     */
+    static String[] valuesOf(String genre, String language, LocalDate publishedDate, Integer pageCount) {
+        String[] values = new String[values().length];
+        values[GENRE.ordinal()] = genre != null && !genre.isBlank() ? genre : null;
+        values[LANGUAGE.ordinal()] = language != null && !language.isBlank() ? language.trim().toLowerCase(Locale.ROOT) : null;
+        values[DECADE.ordinal()] = publishedDate != null ? (publishedDate.getYear() / 10 * 10) + "s" : null;
+        values[PAGES.ordinal()] = pageCount != null && pageCount > 0 ? pageBucket(pageCount) : null;
+        return values;
+    }
+
+    private static String pageBucket(int pageCount) {
+        if (pageCount < 100) {
+            return "under-100";
+        }
+        if (pageCount < 400) {
+            int from = pageCount / 100 * 100;
+            return from + "-" + (from + 99);
+        }
+        return pageCount < 600 ? "400-599" : "600-plus";
+    }
+}
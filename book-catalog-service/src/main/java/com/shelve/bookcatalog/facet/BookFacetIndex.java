@@ -0,0 +1,345 @@
+package com.shelve.bookcatalog.facet;
+
+import com.shelve.bookcatalog.entity.Book;
+import com.shelve.bookcatalog.event.BooksChangedEvent;
+import com.shelve.bookcatalog.event.CatalogReloadedEvent;
+import com.shelve.bookcatalog.repository.BookFacetSource;
+import com.shelve.bookcatalog.repository.BookRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Roaring bitmaps of the books having each genre, language, decade and page-count bucket,
+ * so filtering a result set and counting every facet value are bitmap intersections.
+ *
+ * Books get a dense ordinal in the order they are first seen (oldest first on a rebuild), which
+ * is what the bitmaps hold. Writes update the bitmaps in place as they commit; books written
+ * while a rebuild runs are replayed onto the rebuilt bitmaps before they are swapped in.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookFacetIndex {
+
+    private final BookRepository bookRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    // Values listed per facet; values the request filters on are always listed
+    @Value("${book-facets.max-values:50}")
+    private int maxValues;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Both guarded by lock
+    private Bitmaps bitmaps;
+    private List<Book> replay;
+
+    /**
+     * Filter books and count facet values over the result in one pass. Within a facet the
+     * selected values are alternatives; across facets they must all hold. Each facet's counts
+     * ignore that facet's own selection, so they show what choosing another value would give.
+     *
+     * @param rankedIds candidate books in relevance order, or null to browse the whole catalog
+     *                  (newest first)
+     * @return empty if the bitmaps aren't built yet
+     */
+    public Optional<FacetedHits> filter(List<UUID> rankedIds, Map<BookFacet, Set<String>> selected, int page, int size) {
+        lock.readLock().lock();
+        try {
+            if (bitmaps == null) {
+                return Optional.empty();
+            }
+            RoaringBitmap candidates = rankedIds == null ? bitmaps.all : bitmaps.ordinalsOf(rankedIds);
+
+            Map<BookFacet, RoaringBitmap> filters = new EnumMap<>(BookFacet.class);
+            selected.forEach((facet, values) -> {
+                if (!values.isEmpty()) {
+                    filters.put(facet, bitmaps.union(facet, values));
+                }
+            });
+            RoaringBitmap matched = intersect(candidates, filters.values());
+
+            Map<BookFacet, List<FacetCount>> counts = new EnumMap<>(BookFacet.class);
+            for (BookFacet facet : BookFacet.values()) {
+                List<RoaringBitmap> others = new ArrayList<>();
+                filters.forEach((other, filter) -> {
+                    if (other != facet) {
+                        others.add(filter);
+                    }
+                });
+                counts.put(facet, count(facet, intersect(candidates, others), selected.getOrDefault(facet, Set.of())));
+            }
+
+            List<UUID> ids = rankedIds == null
+                    ? bitmaps.newestFirst(matched, page * size, size)
+                    : bitmaps.inRankOrder(rankedIds, matched, page * size, size);
+            return Optional.of(new FacetedHits(ids, matched.getLongCardinality(), counts));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksChanged(BooksChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (bitmaps != null) {
+                event.getBooks().forEach(bitmaps::put);
+            }
+            if (replay != null) {
+                replay.addAll(event.getBooks());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildInBackground();
+    }
+
+    @EventListener
+    public void onCatalogReloaded(CatalogReloadedEvent event) {
+        rebuildInBackground();
+    }
+
+    @Scheduled(fixedDelayString = "${book-facets.rebuild-interval:PT1H}",
+            initialDelayString = "${book-facets.rebuild-interval:PT1H}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    private void rebuildInBackground() {
+        Thread thread = new Thread(this::rebuild, "facet-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Build the bitmaps from scratch and swap them in.
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        withWriteLock(() -> replay = new ArrayList<>());
+        try {
+            long startedAt = System.currentTimeMillis();
+            Bitmaps rebuilt = new Bitmaps();
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<BookFacetSource> books = bookRepository.streamFacetSources()) {
+                    books.forEach(book -> rebuilt.put(book.getId(), BookFacet.valuesOf(book.getGenre(),
+                            book.getLanguage(), book.getPublishedDate(), book.getPageCount())));
+                }
+            });
+            rebuilt.optimize();
+            withWriteLock(() -> {
+                replay.forEach(rebuilt::put);
+                bitmaps = rebuilt;
+            });
+            log.info("Rebuilt facet bitmaps for {} books in {} ms", rebuilt.ids.size(),
+                    System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            log.error("Facet rebuild failed: {}", e.getMessage(), e);
+        } finally {
+            withWriteLock(() -> replay = null);
+            rebuilding.set(false);
+        }
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<FacetCount> count(BookFacet facet, RoaringBitmap context, Set<String> selected) {
+        List<FacetCount> counts = new ArrayList<>();
+        bitmaps.byValue.get(facet).forEach((value, books) -> {
+            long count = RoaringBitmap.andCardinality(context, books);
+            if (count > 0 || selected.contains(value)) {
+                counts.add(new FacetCount(value, count));
+            }
+        });
+        counts.sort(Comparator.comparingLong(FacetCount::getCount).reversed().thenComparing(FacetCount::getValue));
+        if (counts.size() <= maxValues) {
+            return counts;
+        }
+        List<FacetCount> top = new ArrayList<>(counts.subList(0, maxValues));
+        counts.subList(maxValues, counts.size()).stream()
+                .filter(count -> selected.contains(count.getValue()))
+                .forEach(top::add);
+        return top;
+    }
+
+    private static RoaringBitmap intersect(RoaringBitmap base, Collection<RoaringBitmap> filters) {
+        RoaringBitmap result = base;
+        for (RoaringBitmap filter : filters) {
+            result = RoaringBitmap.and(result, filter);
+        }
+        return result;
+    }
+
+    private static class Bitmaps {
+        private final Map<UUID, Integer> ordinals = new HashMap<>();
+        private final List<UUID> ids = new ArrayList<>();
+        private final RoaringBitmap all = new RoaringBitmap();
+        private final Map<BookFacet, Map<String, RoaringBitmap>> byValue = new EnumMap<>(BookFacet.class);
+        // Each book's current value per facet, to move it when the value changes
+        private final Map<BookFacet, List<String>> valueOf = new EnumMap<>(BookFacet.class);
+        private final Map<String, String> canonical = new HashMap<>();
+
+        Bitmaps() {
+            for (BookFacet facet : BookFacet.values()) {
+                byValue.put(facet, new LinkedHashMap<>());
+                valueOf.put(facet, new ArrayList<>());
+            }
+        }
+
+        void put(Book book) {
+            if (book.getId() != null) {
+                put(book.getId(), BookFacet.valuesOf(book.getGenre(), book.getLanguage(),
+                        book.getPublishedDate(), book.getPageCount()));
+            }
+        }
+
+        void put(UUID id, String[] values) {
+            Integer ordinal = ordinals.get(id);
+            if (ordinal == null) {
+                ordinal = ids.size();
+                ordinals.put(id, ordinal);
+                ids.add(id);
+                all.add(ordinal);
+                valueOf.values().forEach(list -> list.add(null));
+            }
+            for (BookFacet facet : BookFacet.values()) {
+                List<String> current = valueOf.get(facet);
+                String previous = current.get(ordinal);
+                String value = values[facet.ordinal()];
+                if (Objects.equals(previous, value)) {
+                    continue;
+                }
+                Map<String, RoaringBitmap> bitmaps = byValue.get(facet);
+                if (previous != null) {
+                    RoaringBitmap books = bitmaps.get(previous);
+                    books.remove(ordinal);
+                    if (books.isEmpty()) {
+                        bitmaps.remove(previous);
+                    }
+                }
+                if (value != null) {
+                    // One shared string per distinct value rather than one per book
+                    value = canonical.computeIfAbsent(value, v -> v);
+                    bitmaps.computeIfAbsent(value, v -> new RoaringBitmap()).add(ordinal);
+                }
+                current.set(ordinal, value);
+            }
+        }
+
+        void optimize() {
+            all.runOptimize();
+            byValue.values().forEach(bitmaps -> bitmaps.values().forEach(RoaringBitmap::runOptimize));
+        }
+
+        RoaringBitmap ordinalsOf(List<UUID> bookIds) {
+            RoaringBitmap result = new RoaringBitmap();
+            for (UUID id : bookIds) {
+                Integer ordinal = ordinals.get(id);
+                if (ordinal != null) {
+                    result.add(ordinal);
+                }
+            }
+            return result;
+        }
+
+        RoaringBitmap union(BookFacet facet, Set<String> values) {
+            RoaringBitmap result = new RoaringBitmap();
+            for (String value : values) {
+                RoaringBitmap books = byValue.get(facet).get(value);
+                if (books != null) {
+                    result.or(books);
+                }
+            }
+            return result;
+        }
+
+        List<UUID> newestFirst(RoaringBitmap matched, int offset, int limit) {
+            List<UUID> page = new ArrayList<>(limit);
+            IntIterator iterator = matched.getReverseIntIterator();
+            for (int skipped = 0; iterator.hasNext() && page.size() < limit; ) {
+                int ordinal = iterator.next();
+                if (skipped++ >= offset) {
+                    page.add(ids.get(ordinal));
+                }
+            }
+            return page;
+        }
+
+        List<UUID> inRankOrder(List<UUID> rankedIds, RoaringBitmap matched, int offset, int limit) {
+            List<UUID> page = new ArrayList<>(limit);
+            int skipped = 0;
+            for (UUID id : rankedIds) {
+                Integer ordinal = ordinals.get(id);
+                if (ordinal == null || !matched.contains(ordinal)) {
+                    continue;
+                }
+                if (skipped++ >= offset) {
+                    page.add(id);
+                    if (page.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            return page;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class FacetCount {
+        private final String value;
+        private final long count;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class FacetedHits {
+        private final List<UUID> ids;
+        private final long totalHits;
+        private final Map<BookFacet, List<FacetCount>> facets;
+    }
+}
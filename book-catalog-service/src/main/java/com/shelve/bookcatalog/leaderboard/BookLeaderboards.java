@@ -0,0 +1,253 @@
+package com.shelve.bookcatalog.leaderboard;
+
+import com.shelve.bookcatalog.cache.CatalogVersion;
+import com.shelve.bookcatalog.entity.Book;
+import com.shelve.bookcatalog.event.BooksChangedEvent;
+import com.shelve.bookcatalog.event.CatalogReloadedEvent;
+import com.shelve.bookcatalog.repository.BookRating;
+import com.shelve.bookcatalog.repository.BookRepository;
+import com.shelve.bookcatalog.service.GenreCatalog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import com.shelve.bookcatalog.repository.BookScore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Top-rated rankings, overall and per genre, held in memory so the landing page's top-rated
+ * lists are array slices instead of sorts over the books table.
+ *
+ * Books are ranked by a Bayesian average: their rating pulled towards the catalog-wide mean
+ * by {@code prior-weight} phantom ratings, so one 5-star rating no longer outranks a classic
+ * with thousands. Rating changes and new books update the boards as they happen; a scheduled
+ * full rebuild corrects the drift that incremental updates leave behind (the catalog mean
+ * moving, books that fell off a board while others below the cut rose).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookLeaderboards {
+
+    private final BookRepository bookRepository;
+    private final GenreCatalog genreCatalog;
+    private final PlatformTransactionManager transactionManager;
+    private final CatalogVersion catalogVersion;
+
+    // Books kept per board; pages past a truncated board are ranked by the database the same way
+    @Value("${book-leaderboard.size:1000}")
+    private int size;
+
+    // Phantom ratings at the catalog mean added to every book
+    @Value("${book-leaderboard.prior-weight:10}")
+    private double priorWeight;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Boards boards;
+
+    /**
+     * A page of the ranking as book ids. Pages within a board are sliced from memory; pages past a
+     * truncated board, and every page until the boards are first built, are ranked by the database
+     * with the same score and tiebreak, so paging across the end of a board neither repeats nor
+     * skips books.
+     *
+     * @param genreId the genre to rank within, or null for the whole catalog
+     */
+    public Page<UUID> page(Integer genreId, Pageable pageable) {
+        Boards current = boards;
+        if (current != null) {
+            Leaderboard board = genreId != null ? current.byGenre.get(genreId) : current.overall;
+            if (board == null) {
+                return Page.empty(pageable);
+            }
+            Leaderboard.Ranking ranking = board.ranking();
+            List<UUID> ids = ranking.ids();
+            long end = pageable.getOffset() + pageable.getPageSize();
+            if (end <= ids.size() || ranking.complete()) {
+                int from = (int) Math.min(pageable.getOffset(), ids.size());
+                int to = (int) Math.min(end, ids.size());
+                long total = ranking.complete() ? ids.size() : totalBooks(genreId);
+                return new PageImpl<>(ids.subList(from, to), pageable, total);
+            }
+        }
+
+        double mean = current != null ? current.mean : Optional.ofNullable(bookRepository.findMeanRating()).orElse(0.0);
+        List<UUID> ids = genreId != null
+                ? bookRepository.findIdsByGenreIdAndBayesianRating(genreId, mean * priorWeight, priorWeight, pageable)
+                : bookRepository.findIdsByBayesianRating(mean * priorWeight, priorWeight, pageable);
+        return new PageImpl<>(ids, pageable, totalBooks(genreId));
+    }
+
+    /**
+     * The books ranked after a position, for cursor paging through the same ranking as {@link #page}.
+     * Like there, books are sliced from memory while the board holds them and ranked by the database
+     * past it.
+     *
+     * @param genreId the genre to rank within, or null for the whole catalog
+     * @param after   the last book of the previous page, or null for the first page
+     */
+    public Scroll scroll(Integer genreId, Position after, int limit) {
+        Boards current = boards;
+        if (current != null) {
+            Leaderboard board = genreId != null ? current.byGenre.get(genreId) : current.overall;
+            if (board == null) {
+                return new Scroll(List.of(), false);
+            }
+            Leaderboard.Ranking ranking = board.ranking();
+            int from = after != null ? ranking.indexAfter(after.score(), after.id()) : 0;
+            int to = from + limit;
+            if (to < ranking.ids().size() || ranking.complete()) {
+                List<Position> books = new ArrayList<>(limit);
+                for (int i = from; i < Math.min(to, ranking.ids().size()); i++) {
+                    books.add(new Position(ranking.scores()[i], ranking.ids().get(i)));
+                }
+                return new Scroll(books, to < ranking.ids().size());
+            }
+        }
+
+        double mean = current != null ? current.mean : Optional.ofNullable(bookRepository.findMeanRating()).orElse(0.0);
+        // Scores never reach MAX_VALUE, so the first page seeks past nothing
+        double score = after != null ? after.score() : Double.MAX_VALUE;
+        UUID id = after != null ? after.id() : new UUID(0, 0);
+        List<BookScore> rows = genreId != null
+                ? bookRepository.findBayesianScoresByGenreIdAfter(genreId, mean * priorWeight, priorWeight, score, id,
+                        Limit.of(limit + 1))
+                : bookRepository.findBayesianScoresAfter(mean * priorWeight, priorWeight, score, id, Limit.of(limit + 1));
+        List<Position> books = rows.stream()
+                .limit(limit)
+                .map(row -> new Position(row.getScore(), row.getId()))
+                .toList();
+        return new Scroll(books, rows.size() > limit);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksChanged(BooksChangedEvent event) {
+        Boards current = boards;
+        if (current == null) {
+            return;
+        }
+        for (Book book : event.getBooks()) {
+            double score = current.score(book.getAverageRating(), book.getRatingsCount());
+            current.overall.offer(book.getId(), score);
+            if (book.getGenreId() != null) {
+                current.board(book.getGenreId(), size).offer(book.getId(), score);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildInBackground();
+    }
+
+    @EventListener
+    public void onCatalogReloaded(CatalogReloadedEvent event) {
+        rebuildInBackground();
+    }
+
+    @Scheduled(fixedDelayString = "${book-leaderboard.rebuild-interval:PT1H}",
+            initialDelayString = "${book-leaderboard.rebuild-interval:PT1H}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    private void rebuildInBackground() {
+        Thread thread = new Thread(this::rebuild, "leaderboard-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Rank every book from scratch with the current catalog mean, then swap the new boards in.
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long startedAt = System.currentTimeMillis();
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            Boards rebuilt = readOnly.execute(status -> {
+                Double mean = bookRepository.findMeanRating();
+                Boards next = new Boards(mean != null ? mean : 0.0, priorWeight, size);
+                try (Stream<BookRating> ratings = bookRepository.streamRatings()) {
+                    ratings.forEach(rating -> {
+                        double score = next.score(rating.getAverageRating(), rating.getRatingsCount());
+                        next.overall.load(rating.getId(), score);
+                        if (rating.getGenreId() != null) {
+                            next.board(rating.getGenreId(), size).load(rating.getId(), score);
+                        }
+                    });
+                }
+                return next;
+            });
+            rebuilt.overall.publish();
+            rebuilt.byGenre.values().forEach(Leaderboard::publish);
+            boards = rebuilt;
+            // Rankings may have moved without any book changing (catalog mean, books re-admitted)
+            catalogVersion.bump();
+            log.info("Rebuilt leaderboards for {} genres in {} ms (catalog mean rating {})",
+                    rebuilt.byGenre.size(), System.currentTimeMillis() - startedAt,
+                    String.format("%.2f", rebuilt.mean));
+        } catch (Exception e) {
+            log.error("Leaderboard rebuild failed: {}", e.getMessage(), e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private long totalBooks(Integer genreId) {
+        return genreId != null ? genreCatalog.getBookCount(genreId) : genreCatalog.getTotalBookCount();
+    }
+
+    /**
+     * A book's place in a ranking: its score, then its id.
+     */
+    public record Position(double score, UUID id) {
+    }
+
+    public record Scroll(List<Position> books, boolean hasNext) {
+    }
+
+    private static class Boards {
+        private final double mean;
+        private final double priorWeight;
+        private final Leaderboard overall;
+        private final Map<Integer, Leaderboard> byGenre = new ConcurrentHashMap<>();
+
+        Boards(double mean, double priorWeight, int size) {
+            this.mean = mean;
+            this.priorWeight = priorWeight;
+            this.overall = new Leaderboard(size);
+        }
+
+        Leaderboard board(Integer genreId, int size) {
+            return byGenre.computeIfAbsent(genreId, id -> new Leaderboard(size));
+        }
+
+        double score(Double averageRating, Integer ratingsCount) {
+            double rating = averageRating != null ? averageRating : 0.0;
+            int count = ratingsCount != null ? ratingsCount : 0;
+            return (rating * count + mean * priorWeight) / (count + priorWeight);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.shelve.bookcatalog.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * The best {@code capacity} books by score, kept sorted. Writers update it under its lock and
+ * republish an immutable ranking, so readers slice pages out of an array without locking or sorting.
+ */
+class Leaderboard {
+
+    // Ties broken by id in Postgres' uuid order (unsigned), matching the database's ranking past the board
+    private static final Comparator<Entry> RANKING = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparing(entry -> entry.id().getMostSignificantBits(), Long::compareUnsigned)
+            .thenComparing(entry -> entry.id().getLeastSignificantBits(), Long::compareUnsigned);
+
+    private final int capacity;
+    private final TreeSet<Entry> ranked = new TreeSet<>(RANKING);
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    // Whether every candidate made it in, i.e. nothing ranks below the last entry
+    private boolean complete = true;
+
+    private volatile Ranking ranking = new Ranking(List.of(), new double[0], true);
+
+    Leaderboard(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Add or re-score a book. A book that scores below a full board is left out.
+     */
+    synchronized void offer(UUID id, double score) {
+        if (put(id, score)) {
+            publish();
+        }
+    }
+
+    /**
+     * Bulk variant of {@link #offer} for rebuilds; publish once with {@link #publish()} afterwards.
+     */
+    synchronized void load(UUID id, double score) {
+        put(id, score);
+    }
+
+    synchronized void publish() {
+        List<UUID> ids = new ArrayList<>(ranked.size());
+        double[] scores = new double[ranked.size()];
+        for (Entry entry : ranked) {
+            scores[ids.size()] = entry.score();
+            ids.add(entry.id());
+        }
+        ranking = new Ranking(List.copyOf(ids), scores, complete);
+    }
+
+    Ranking ranking() {
+        return ranking;
+    }
+
+    private boolean put(UUID id, double score) {
+        Entry existing = entries.get(id);
+        if (existing != null) {
+            if (existing.score() == score) {
+                return false;
+            }
+            ranked.remove(existing);
+        } else if (ranked.size() >= capacity && score <= ranked.last().score()) {
+            complete = false;
+            return false;
+        }
+
+        Entry entry = new Entry(id, score);
+        ranked.add(entry);
+        entries.put(id, entry);
+        if (ranked.size() > capacity) {
+            entries.remove(ranked.pollLast().id());
+            complete = false;
+        }
+        return true;
+    }
+
+    /**
+     * Book ids in rank order with their scores, and whether they are the whole ranking or just its head.
+     */
+    record Ranking(List<UUID> ids, double[] scores, boolean complete) {
+
+        /**
+         * Index of the first book ranked after the given score and id.
+         */
+        int indexAfter(double score, UUID id) {
+            Entry position = new Entry(id, score);
+            int low = 0;
+            int high = ids.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (RANKING.compare(new Entry(ids.get(mid), scores[mid]), position) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private record Entry(UUID id, double score) {
+    }
+}
@@ -0,0 +1,200 @@
+package com.shelve.bookcatalog.ratelimit;
+
+import com.shelve.bookcatalog.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket budget per external provider, shared by every caller in the service.
+ * Interactive searches may draw the bucket down to empty and briefly borrow ahead;
+ * imports and background work must leave a configured share of the bucket untouched,
+ * so when the budget is tight they wait and retry instead of starving user searches.
+ *
+ * Waiting is done with {@link Mono#delay}, so reactive callers never block a thread.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProviderRateLimiter {
+
+    private static final String PROPERTY_PREFIX = "book-search.external.rate-limit.";
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${book-search.external.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    // Share of a bucket that imports / background work must leave for the classes above them
+    @Value("${book-search.external.rate-limit.import-reserve:0.3}")
+    private double importReserve;
+
+    @Value("${book-search.external.rate-limit.background-reserve:0.6}")
+    private double backgroundReserve;
+
+    @Value("${book-search.external.rate-limit.interactive-max-wait:PT1S}")
+    private Duration interactiveMaxWait;
+
+    @Value("${book-search.external.rate-limit.import-max-wait:PT1M}")
+    private Duration importMaxWait;
+
+    @Value("${book-search.external.rate-limit.background-max-wait:PT10M}")
+    private Duration backgroundMaxWait;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Completes once the caller may make one request to the provider, or fails with
+     * {@link RateLimitExceededException} if that would take longer than the priority's max wait.
+     */
+    public Mono<Void> acquire(String provider, RequestPriority priority) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            long startedAt = System.nanoTime();
+            return attempt(provider, bucket(provider), priority, startedAt, startedAt + maxWait(priority).toNanos());
+        });
+    }
+
+    /**
+     * The provider answered 429: empty the bucket so every class waits for it to refill.
+     */
+    public void onThrottled(String provider) {
+        if (!enabled) {
+            return;
+        }
+        bucket(provider).drain();
+        meterRegistry.counter("external.ratelimit.throttled", "provider", provider).increment();
+        log.warn("{} is throttling requests, pausing until its budget refills", provider);
+    }
+
+    private Mono<Void> attempt(String provider, TokenBucket bucket, RequestPriority priority,
+                               long startedAt, long deadline) {
+        long now = System.nanoTime();
+        long remaining = Math.max(deadline - now, 0);
+        Reservation reservation = bucket.reserve(floor(bucket, priority), remaining, now);
+
+        if (reservation.granted()) {
+            countRequest(provider, priority, "granted");
+            waitTimer(provider, priority).record(now - startedAt + reservation.waitNanos(), TimeUnit.NANOSECONDS);
+            return reservation.waitNanos() == 0
+                    ? Mono.empty()
+                    : Mono.delay(Duration.ofNanos(reservation.waitNanos())).then();
+        }
+
+        if (priority == RequestPriority.INTERACTIVE || reservation.waitNanos() > remaining) {
+            countRequest(provider, priority, "rejected");
+            return Mono.error(new RateLimitExceededException(
+                    provider + " request budget exhausted for " + priority.name().toLowerCase() + " requests"));
+        }
+        // Back off until enough budget is left over for this class, then try again
+        return Mono.delay(Duration.ofNanos(reservation.waitNanos()))
+                .then(Mono.defer(() -> attempt(provider, bucket, priority, startedAt, deadline)));
+    }
+
+    private double floor(TokenBucket bucket, RequestPriority priority) {
+        return switch (priority) {
+            case INTERACTIVE -> Double.NEGATIVE_INFINITY;
+            case IMPORT -> bucket.capacity * importReserve;
+            case BACKGROUND -> bucket.capacity * backgroundReserve;
+        };
+    }
+
+    private Duration maxWait(RequestPriority priority) {
+        return switch (priority) {
+            case INTERACTIVE -> interactiveMaxWait;
+            case IMPORT -> importMaxWait;
+            case BACKGROUND -> backgroundMaxWait;
+        };
+    }
+
+    private TokenBucket bucket(String provider) {
+        return buckets.computeIfAbsent(provider, p -> {
+            double perSecond = environment.getProperty(PROPERTY_PREFIX + p + ".per-second", Double.class, 5.0);
+            int burst = environment.getProperty(PROPERTY_PREFIX + p + ".burst", Integer.class, 10);
+            TokenBucket bucket = new TokenBucket(burst, perSecond);
+            meterRegistry.gauge("external.ratelimit.tokens", List.of(Tag.of("provider", p)),
+                    bucket, TokenBucket::available);
+            log.info("Rate limiting {} to {}/s with a burst of {}", p, perSecond, burst);
+            return bucket;
+        });
+    }
+
+    private void countRequest(String provider, RequestPriority priority, String outcome) {
+        meterRegistry.counter("external.ratelimit.requests",
+                "provider", provider, "priority", priority.name().toLowerCase(), "outcome", outcome).increment();
+    }
+
+    private Timer waitTimer(String provider, RequestPriority priority) {
+        return Timer.builder("external.ratelimit.wait")
+                .tag("provider", provider)
+                .tag("priority", priority.name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    private record Reservation(boolean granted, long waitNanos) {
+    }
+
+    private static class TokenBucket {
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        TokenBucket(double capacity, double perSecond) {
+            this.capacity = capacity;
+            this.tokensPerNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+            this.tokens = capacity;
+        }
+
+        /**
+         * Take one token if that leaves at least {@code floor} tokens. Interactive callers pass
+         * no floor and may go negative, which makes them wait for the token they borrowed.
+         * If denied, the returned wait is how long until the token would be available.
+         */
+        synchronized Reservation reserve(double floor, long maxWaitNanos, long now) {
+            refill(now);
+            if (tokens - 1 >= floor) {
+                long wait = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+                if (wait <= maxWaitNanos) {
+                    tokens -= 1;
+                    return new Reservation(true, wait);
+                }
+                return new Reservation(false, wait);
+            }
+            return new Reservation(false, (long) Math.ceil((floor + 1 - tokens) / tokensPerNano));
+        }
+
+        synchronized void drain() {
+            refill(System.nanoTime());
+            tokens = Math.min(tokens, 0);
+        }
+
+        synchronized double available() {
+            refill(System.nanoTime());
+            return tokens;
+        }
+
+        private void refill(long now) {
+            if (now <= lastRefill) {
+                return;
+            }
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.shelve.bookcatalog.ratelimit;
+
+/**
+ * Who an external API call is for, highest priority first. Lower classes may only spend
+ * the part of a provider's budget that is not held back for the classes above them.
+ */
+public enum RequestPriority {
+    INTERACTIVE,
+    IMPORT,
+    BACKGROUND
+}
@@ -0,0 +1,358 @@
+package com.shelve.bookcatalog.rating;
+
+import com.shelve.bookcatalog.client.BookRatingAggregate;
+import com.shelve.bookcatalog.client.ReviewRatingClient;
+import com.shelve.bookcatalog.dto.RatingRebuildStatusResponse;
+import com.shelve.bookcatalog.entity.Book;
+import com.shelve.bookcatalog.event.BooksChangedEvent;
+import com.shelve.bookcatalog.repository.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps {@code Book.averageRating} and {@code ratingsCount} in line with Shelve users' ratings.
+ *
+ * Rating events are folded into per-book deltas in memory and written behind on a fixed delay:
+ * each flush adds the deltas to the books' running rating sum and count with one atomic UPDATE per
+ * book, sent as a JDBC batch, so instances flushing the same book add up rather than overwrite each
+ * other. The provider's rating is kept aside on first write and blended with the users' ratings, so
+ * imported books don't lose their existing rating. Deltas not yet flushed are lost if the service
+ * stops abruptly, as are those of a book whose update keeps failing on its own; a rebuild restores
+ * the totals from review-rating-service.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookRatingAggregator {
+
+    // First user rating for a book: what's stored so far is the provider's rating
+    private static final String EXTERNAL_AVERAGE = "COALESCE(external_average_rating, average_rating, 0)";
+    private static final String EXTERNAL_COUNT = "COALESCE(external_ratings_count, ratings_count, 0)";
+
+    private static final String ADD_DELTAS = updateRatings(
+            "GREATEST(COALESCE(user_rating_sum, 0) + :sum, 0)",
+            "GREATEST(COALESCE(user_rating_count, 0) + :count, 0)", "");
+    private static final String SET_TOTALS = updateRatings(":sum", ":count",
+            " AND (COALESCE(user_rating_sum, 0) <> :sum OR COALESCE(user_rating_count, 0) <> :count)");
+
+    private final BookRepository bookRepository;
+    private final ReviewRatingClient reviewRatingClient;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    @Qualifier("ratingRebuildExecutor")
+    private final TaskExecutor ratingRebuildExecutor;
+
+    @Value("${book-rating.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    @Value("${book-rating.rebuild.partitions:16}")
+    private int rebuildPartitions;
+
+    private final Map<UUID, Delta> pending = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private final AtomicReference<Rebuild> current = new AtomicReference<>();
+
+    @PostConstruct
+    void registerMetrics() {
+        meterRegistry.gaugeMapSize("book.ratings.pending", Tags.empty(), pending);
+    }
+
+    /**
+     * Queue a change to a book's rating totals for the next flush.
+     */
+    public void record(UUID bookId, long scoreDelta, int countDelta) {
+        pending.merge(bookId, new Delta(scoreDelta, countDelta), Delta::plus);
+    }
+
+    @Scheduled(fixedDelayString = "${book-rating.flush-interval:PT5S}")
+    public void flush() {
+        synchronized (flushLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<UUID> bookIds = new ArrayList<>(pending.keySet());
+            for (int from = 0; from < bookIds.size(); from += flushBatchSize) {
+                Map<UUID, Delta> batch = new HashMap<>();
+                for (UUID bookId : bookIds.subList(from, Math.min(from + flushBatchSize, bookIds.size()))) {
+                    // Events arriving from here on start a new delta for the next flush
+                    Delta delta = pending.remove(bookId);
+                    if (delta != null) {
+                        batch.put(bookId, delta);
+                    }
+                }
+                if (!write(batch)) {
+                    log.warn("Rating flush of {} books failed, retrying on the next flush", batch.size());
+                    batch.forEach((bookId, delta) -> pending.merge(bookId, delta, Delta::plus));
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the batch in one transaction or, should that fail, each book in its own, so a book
+     * that can't be written doesn't hold back the rest.
+     *
+     * @return false if nothing could be written, e.g. the database is unreachable
+     */
+    private boolean write(Map<UUID, Delta> batch) {
+        try {
+            applyDeltas(batch);
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Rating flush of {} books failed, writing them one at a time: {}", batch.size(), e.getMessage());
+        }
+        Map<UUID, String> failures = new HashMap<>();
+        for (Map.Entry<UUID, Delta> entry : batch.entrySet()) {
+            try {
+                applyDeltas(Map.of(entry.getKey(), entry.getValue()));
+            } catch (RuntimeException e) {
+                failures.put(entry.getKey(), e.getMessage());
+            }
+        }
+        if (failures.size() == batch.size()) {
+            return false;
+        }
+        failures.forEach((bookId, message) -> log.warn("Dropped rating changes of book {}: {}", bookId, message));
+        meterRegistry.counter("book.ratings.dropped").increment(failures.size());
+        return true;
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Start recomputing every book's user rating totals from review-rating-service, one book id range
+     * per partition, with partitions fetched in parallel. Ratings submitted while a rebuild runs may
+     * be counted twice or not at all for the books they touch, so rebuild when rating traffic is low.
+     *
+     * @return the new rebuild, or empty if one is already running
+     */
+    public Optional<RatingRebuildStatusResponse> startRebuild() {
+        Rebuild rebuild = new Rebuild(rebuildPartitions);
+        if (!current.compareAndSet(null, rebuild) && !replaceFinished(rebuild)) {
+            return Optional.empty();
+        }
+        Thread thread = new Thread(() -> runRebuild(rebuild), "rating-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+        return Optional.of(toResponse(rebuild));
+    }
+
+    public Optional<RatingRebuildStatusResponse> getRebuildStatus() {
+        return Optional.ofNullable(current.get()).map(this::toResponse);
+    }
+
+    private boolean replaceFinished(Rebuild rebuild) {
+        Rebuild previous = current.get();
+        return previous != null && previous.completedAt != null && current.compareAndSet(previous, rebuild);
+    }
+
+    private void runRebuild(Rebuild rebuild) {
+        log.info("Rebuilding book rating totals in {} partitions", rebuild.partitions);
+        // Apply what is already queued so it isn't counted again on top of the rebuilt totals
+        flush();
+        List<CompletableFuture<Void>> partitions = new ArrayList<>();
+        try {
+            for (int partition = 0; partition < rebuild.partitions; partition++) {
+                int index = partition;
+                partitions.add(CompletableFuture.runAsync(() -> rebuildPartition(rebuild, index), ratingRebuildExecutor));
+            }
+            CompletableFuture.allOf(partitions.toArray(CompletableFuture[]::new)).join();
+            rebuild.finish("COMPLETED", null);
+            log.info("Rebuilt rating totals of {} books", rebuild.updatedBooks.get());
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.error("Rating rebuild failed: {}", cause.getMessage(), cause);
+            rebuild.finish("FAILED", cause.getMessage());
+        }
+    }
+
+    private void rebuildPartition(Rebuild rebuild, int partition) {
+        UUID from = lowerBound(partition, rebuild.partitions);
+        UUID to = upperBound(partition, rebuild.partitions);
+
+        Map<UUID, Delta> totals = new HashMap<>();
+        for (BookRatingAggregate aggregate : reviewRatingClient.getAggregates(from, to)) {
+            totals.put(UUID.fromString(aggregate.getBookId()),
+                    new Delta(aggregate.getRatingSum(), (int) aggregate.getRatingCount()));
+        }
+        // Books that have user ratings here but none left in review-rating-service go back to zero
+        Set<UUID> bookIds = new HashSet<>(totals.keySet());
+        bookIds.addAll(bookRepository.findIdsWithUserRatingsBetween(from, to));
+
+        List<UUID> ordered = new ArrayList<>(bookIds);
+        for (int i = 0; i < ordered.size(); i += flushBatchSize) {
+            List<UUID> chunk = ordered.subList(i, Math.min(i + flushBatchSize, ordered.size()));
+            // Fetching runs in parallel; writes take turns with flushes so neither overwrites the other
+            synchronized (flushLock) {
+                Map<UUID, Delta> chunkTotals = new HashMap<>();
+                chunk.forEach(bookId -> chunkTotals.put(bookId, totals.getOrDefault(bookId, Delta.ZERO)));
+                List<UUID> updated = transactionTemplate.execute(status -> update(SET_TOTALS, chunkTotals));
+                publishUpdated(updated);
+                rebuild.updatedBooks.addAndGet(updated.size());
+            }
+        }
+        rebuild.completedPartitions.incrementAndGet();
+    }
+
+    private void applyDeltas(Map<UUID, Delta> deltas) {
+        List<UUID> updated = transactionTemplate.execute(status -> update(ADD_DELTAS, deltas));
+        publishUpdated(updated);
+        meterRegistry.counter("book.ratings.flushed").increment(updated.size());
+        if (updated.size() < deltas.size()) {
+            log.debug("Dropped rating changes for {} books not in the catalog", deltas.size() - updated.size());
+        }
+    }
+
+    /**
+     * Run the rating UPDATE for each book as one JDBC batch, in id order so concurrent flushes
+     * lock rows in the same order.
+     *
+     * @return the ids of the books updated
+     */
+    private List<UUID> update(String sql, Map<UUID, Delta> values) {
+        List<UUID> bookIds = new ArrayList<>(values.keySet());
+        bookIds.sort(null);
+        SqlParameterSource[] batch = bookIds.stream()
+                .map(bookId -> new MapSqlParameterSource()
+                        .addValue("id", bookId)
+                        .addValue("sum", values.get(bookId).scoreSum)
+                        .addValue("count", values.get(bookId).count))
+                .toArray(SqlParameterSource[]::new);
+        int[] counts = namedParameterJdbcTemplate.batchUpdate(sql, batch);
+        List<UUID> updated = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                updated.add(bookIds.get(i));
+            }
+        }
+        return updated;
+    }
+
+    // After commit: drop the books' stale second-level cache entries and hand the fresh rows to listeners
+    private void publishUpdated(Collection<UUID> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        Cache cache = entityManagerFactory.getCache();
+        bookIds.forEach(bookId -> cache.evict(Book.class, bookId));
+        eventPublisher.publishEvent(BooksChangedEvent.updated(bookRepository.findAllById(bookIds)));
+    }
+
+    /**
+     * An UPDATE setting a book's user rating totals and the blended average and count. Every value
+     * is computed from the row as the UPDATE locked it, so concurrent writers don't lose each
+     * other's changes.
+     */
+    private static String updateRatings(String userSum, String userCount, String condition) {
+        String totalCount = "(" + EXTERNAL_COUNT + " + " + userCount + ")";
+        return "UPDATE books SET "
+                + "external_average_rating = " + EXTERNAL_AVERAGE + ", "
+                + "external_ratings_count = " + EXTERNAL_COUNT + ", "
+                + "user_rating_sum = " + userSum + ", "
+                + "user_rating_count = " + userCount + ", "
+                + "ratings_count = " + totalCount + ", "
+                + "average_rating = CASE WHEN " + totalCount + " = 0 THEN 0 "
+                + "ELSE (" + EXTERNAL_AVERAGE + " * " + EXTERNAL_COUNT + " + " + userSum + ") / " + totalCount + " END, "
+                + "updated_at = now() "
+                + "WHERE id = :id" + condition;
+    }
+
+    // Partitions split the UUID space evenly on its high 64 bits, compared unsigned as Postgres does
+    static UUID lowerBound(int partition, int partitions) {
+        return new UUID(Long.divideUnsigned(-1L, partitions) * partition, 0L);
+    }
+
+    static UUID upperBound(int partition, int partitions) {
+        if (partition == partitions - 1) {
+            return new UUID(-1L, -1L);
+        }
+        return new UUID(Long.divideUnsigned(-1L, partitions) * (partition + 1) - 1, -1L);
+    }
+
+    private RatingRebuildStatusResponse toResponse(Rebuild rebuild) {
+        return RatingRebuildStatusResponse.builder()
+                .status(rebuild.status)
+                .partitions(rebuild.partitions)
+                .completedPartitions(rebuild.completedPartitions.get())
+                .updatedBooks(rebuild.updatedBooks.get())
+                .error(rebuild.error)
+                .startedAt(rebuild.startedAt)
+                .completedAt(rebuild.completedAt)
+                .build();
+    }
+
+    private static class Delta {
+        private static final Delta ZERO = new Delta(0, 0);
+
+        private final long scoreSum;
+        private final int count;
+
+        Delta(long scoreSum, int count) {
+            this.scoreSum = scoreSum;
+            this.count = count;
+        }
+
+        Delta plus(Delta other) {
+            return new Delta(scoreSum + other.scoreSum, count + other.count);
+        }
+    }
+
+    private static class Rebuild {
+        private final int partitions;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicInteger completedPartitions = new AtomicInteger();
+        private final AtomicLong updatedBooks = new AtomicLong();
+        private volatile String status = "RUNNING";
+        private volatile String error;
+        private volatile LocalDateTime completedAt;
+
+        Rebuild(int partitions) {
+            this.partitions = partitions;
+        }
+
+        void finish(String finalStatus, String message) {
+            status = finalStatus;
+            error = message;
+            completedAt = LocalDateTime.now();
+        }
+    }
+}
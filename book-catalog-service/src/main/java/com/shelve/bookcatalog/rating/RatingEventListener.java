@@ -0,0 +1,54 @@
+package com.shelve.bookcatalog.rating;
+
+import com.shelve.bookcatalog.config.RabbitMQConfig;
+import com.shelve.bookcatalog.event.RatingEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Turns rating events into rating total deltas: a new rating adds its score and one to the count,
+ * a changed rating adds the difference to its previous score.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RatingEventListener {
+
+    private final BookRatingAggregator bookRatingAggregator;
+    private final MeterRegistry meterRegistry;
+
+    @RabbitListener(queues = RabbitMQConfig.RATING_QUEUE)
+    public void onRatingEvent(RatingEvent event) {
+        String type = event.getEventType() != null ? event.getEventType() : "UNKNOWN";
+        meterRegistry.counter("book.ratings.events", "type", type.toLowerCase()).increment();
+
+        UUID bookId;
+        try {
+            bookId = UUID.fromString(event.getBookId());
+        } catch (RuntimeException e) {
+            log.warn("Ignoring rating event with invalid book id: {}", event.getBookId());
+            return;
+        }
+        if (event.getScore() == null) {
+            log.warn("Ignoring {} rating event without a score for book {}", type, bookId);
+            return;
+        }
+
+        switch (type) {
+            case "CREATED" -> bookRatingAggregator.record(bookId, event.getScore(), 1);
+            case "UPDATED" -> {
+                if (event.getPreviousScore() == null) {
+                    log.warn("Ignoring rating update without a previous score for book {}; a rebuild will pick it up", bookId);
+                    return;
+                }
+                bookRatingAggregator.record(bookId, event.getScore() - event.getPreviousScore(), 0);
+            }
+            default -> log.warn("Ignoring rating event of unknown type {} for book {}", type, bookId);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.shelve.bookcatalog.repository;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Projection carrying the columns search facets are built from.
+ */
+public interface BookFacetSource {
+    UUID getId();
+    String getGenre();
+    String getLanguage();
+    LocalDate getPublishedDate();
+    Integer getPageCount();
+}
@@ -0,0 +1,10 @@
+package com.shelve.bookcatalog.repository;
+
+/**
+ * Projection carrying just the columns used for duplicate detection.
+ */
+public interface BookIdentity {
+    String getIsbn();
+    String getTitle();
+    String getAuthor();
+}
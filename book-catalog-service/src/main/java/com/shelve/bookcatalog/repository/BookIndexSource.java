@@ -0,0 +1,16 @@
+package com.shelve.bookcatalog.repository;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Projection carrying the columns the full-text search index is built from.
+ */
+public interface BookIndexSource {
+    UUID getId();
+    String getTitle();
+    String getAuthor();
+    String getGenre();
+    String getIsbn();
+    LocalDate getPublishedDate();
+}
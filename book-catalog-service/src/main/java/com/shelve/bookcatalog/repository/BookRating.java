@@ -0,0 +1,13 @@
+package com.shelve.bookcatalog.repository;
+
+import java.util.UUID;
+
+/**
+ * Projection carrying just the columns leaderboards are ranked on.
+ */
+public interface BookRating {
+    UUID getId();
+    Integer getGenreId();
+    Double getAverageRating();
+    Integer getRatingsCount();
+}
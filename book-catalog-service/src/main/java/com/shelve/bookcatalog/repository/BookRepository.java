@@ -1,39 +1,131 @@
 package com.shelve.bookcatalog.repository;
 
 import com.shelve.bookcatalog.entity.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, UUID> {
+public interface BookRepository extends JpaRepository<Book, UUID>, BookRepositoryCustom {
     
-    Page<Book> findByGenre(String genre, Pageable pageable);
+    String SEARCH_PREDICATE = "LOWER(b.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+           "LOWER(b.author) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
+           "LOWER(b.genre) LIKE LOWER(CONCAT('%', :query, '%'))";
     
     Page<Book> findByAuthorContainingIgnoreCase(String author, Pageable pageable);
     
-    @Query("SELECT b FROM Book b WHERE " +
-           "LOWER(b.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(b.author) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(b.genre) LIKE LOWER(CONCAT('%', :query, '%'))")
+    @Query("SELECT b FROM Book b WHERE " + SEARCH_PREDICATE)
     Page<Book> search(@Param("query") String query, Pageable pageable);
     
-    @Query("SELECT DISTINCT b.genre FROM Book b ORDER BY b.genre")
-    List<String> findAllGenres();
+    // Summary (card) projections for list endpoints: no description/audit columns are read
+    @Query(value = "SELECT b.id AS id, b.title AS title, b.author AS author, b.isbn AS isbn, " +
+                   "b.coverUrl AS coverUrl, b.genre AS genre, b.publishedDate AS publishedDate, " +
+                   "b.pageCount AS pageCount, b.publisher AS publisher, b.language AS language, " +
+                   "b.averageRating AS averageRating, b.ratingsCount AS ratingsCount " +
+                   "FROM Book b WHERE " + SEARCH_PREDICATE,
+           countQuery = "SELECT COUNT(b) FROM Book b WHERE " + SEARCH_PREDICATE)
+    Page<BookSummary> searchSummaries(@Param("query") String query, Pageable pageable);
+    
+    Page<BookSummary> findSummariesBy(Pageable pageable);
+    
+    Page<BookSummary> findSummariesByOrderByCreatedAtDesc(Pageable pageable);
+    
+    List<BookSummary> findSummariesByIdIn(Collection<UUID> ids);
+    
+    @Query("SELECT b.genreId AS genreId, COUNT(b) AS bookCount FROM Book b " +
+           "WHERE b.genreId IS NOT NULL GROUP BY b.genreId")
+    List<GenreCount> countByGenreId();
+    
+    // Books stored before the genre dimension existed, by their raw category
+    @Query("SELECT DISTINCT b.genre FROM Book b WHERE b.genreId IS NULL")
+    List<String> findUnassignedGenres();
+    
+    @Modifying
+    @Query("UPDATE Book b SET b.genreId = :genreId, b.genre = :name, b.updatedAt = :now " +
+           "WHERE b.genreId IS NULL AND b.genre = :raw")
+    int assignGenre(@Param("raw") String raw, @Param("genreId") Integer genreId, @Param("name") String name,
+                    @Param("now") LocalDateTime now);
+    
+    // Leaderboard rebuilds: the mean rating across all ratings, then every book's rating, streamed
+    @Query("SELECT SUM(b.averageRating * b.ratingsCount) / SUM(b.ratingsCount) FROM Book b WHERE b.ratingsCount > 0")
+    Double findMeanRating();
+    
+    @Query("SELECT b.id AS id, b.genreId AS genreId, b.averageRating AS averageRating, " +
+           "b.ratingsCount AS ratingsCount FROM Book b")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<BookRating> streamRatings();
+    
+    // Leaderboard pages past the boards held in memory, in the boards' order: Bayesian average
+    // (priorSum is the catalog mean times priorWeight), then id
+    String BAYESIAN_SCORE = "(b.averageRating * b.ratingsCount + :priorSum) / (b.ratingsCount + :priorWeight)";
+    String BAYESIAN_ORDER = " ORDER BY " + BAYESIAN_SCORE + " DESC, b.id";
+    // Seeks past a cursor's score and id in that order
+    String AFTER_BAYESIAN_POSITION = "(" + BAYESIAN_SCORE + " < :score OR (" + BAYESIAN_SCORE + " = :score " +
+           "AND b.id > :id))";
+    
+    @Query("SELECT b.id FROM Book b" + BAYESIAN_ORDER)
+    List<UUID> findIdsByBayesianRating(@Param("priorSum") double priorSum, @Param("priorWeight") double priorWeight,
+                                       Pageable pageable);
+    
+    @Query("SELECT b.id FROM Book b WHERE b.genreId = :genreId" + BAYESIAN_ORDER)
+    List<UUID> findIdsByGenreIdAndBayesianRating(@Param("genreId") Integer genreId, @Param("priorSum") double priorSum,
+                                                 @Param("priorWeight") double priorWeight, Pageable pageable);
+    
+    @Query("SELECT b.id AS id, " + BAYESIAN_SCORE + " AS score FROM Book b " +
+           "WHERE " + AFTER_BAYESIAN_POSITION + BAYESIAN_ORDER)
+    List<BookScore> findBayesianScoresAfter(@Param("priorSum") double priorSum, @Param("priorWeight") double priorWeight,
+                                            @Param("score") double score, @Param("id") UUID id, Limit limit);
+    
+    @Query("SELECT b.id AS id, " + BAYESIAN_SCORE + " AS score FROM Book b " +
+           "WHERE b.genreId = :genreId AND " + AFTER_BAYESIAN_POSITION + BAYESIAN_ORDER)
+    List<BookScore> findBayesianScoresByGenreIdAfter(@Param("genreId") Integer genreId,
+                                                     @Param("priorSum") double priorSum,
+                                                     @Param("priorWeight") double priorWeight,
+                                                     @Param("score") double score, @Param("id") UUID id, Limit limit);
+    
+    // Search index rebuilds
+    @Query("SELECT b.id AS id, b.title AS title, b.author AS author, b.genre AS genre, b.isbn AS isbn, " +
+           "b.publishedDate AS publishedDate FROM Book b")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<BookIndexSource> streamIndexSources();
+    
+    // Typeahead index rebuilds
+    @Query("SELECT b.id AS id, b.title AS title, b.author AS author, b.averageRating AS averageRating, " +
+           "b.ratingsCount AS ratingsCount FROM Book b")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<BookSuggestionSource> streamSuggestionSources();
+    
+    // Facet index rebuilds, oldest first so bitmap order follows insertion order
+    @Query("SELECT b.id AS id, b.genre AS genre, b.language AS language, b.publishedDate AS publishedDate, " +
+           "b.pageCount AS pageCount FROM Book b ORDER BY b.createdAt, b.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<BookFacetSource> streamFacetSources();
+    
+    @Query("SELECT b.id FROM Book b WHERE b.id BETWEEN :from AND :to AND b.userRatingCount > 0")
+    List<UUID> findIdsWithUserRatingsBetween(@Param("from") UUID from, @Param("to") UUID to);
     
     List<Book> findByIdIn(List<UUID> ids);
     
     Page<Book> findByOrderByAverageRatingDesc(Pageable pageable);
     
-    Page<Book> findByGenreOrderByAverageRatingDesc(String genre, Pageable pageable);
-    
     // For external API import - duplicate checking
     boolean existsByIsbn(String isbn);
     
@@ -41,5 +133,18 @@ public interface BookRepository extends JpaRepository<Book, UUID> {
     
     boolean existsByTitleAndAuthor(String title, String author);
     
+    Optional<Book> findFirstByTitleIgnoreCaseAndAuthorIgnoreCase(String title, String author);
+    
+    // Existing rows that may duplicate a batch of candidates, resolved in one statement.
+    // Served by uk_books_isbn and idx_books_lower_title_author (CatalogIndexInitializer)
+    @Query("SELECT b.isbn AS isbn, b.title AS title, b.author AS author FROM Book b " +
+           "WHERE b.isbn IN :isbns OR LOWER(b.title) IN :titles")
+    List<BookIdentity> findDuplicateCandidates(@Param("isbns") Collection<String> isbns,
+                                               @Param("titles") Collection<String> titles);
+    
     Page<Book> findByOrderByCreatedAtDesc(Pageable pageable);
+    
+    // Keyset (cursor) scrolling: seeks past the last row's sort keys, no OFFSET and no COUNT
+    Window<Book> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
 }
@@ -0,0 +1,27 @@
+package com.shelve.bookcatalog.repository;
+
+import com.shelve.bookcatalog.entity.Book;
+import com.shelve.bookcatalog.search.BookQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface BookRepositoryCustom {
+
+    /**
+     * Load books by id through the second-level cache: cached ids are served from the
+     * cache and only the misses are queried, in one statement. Unknown ids are skipped.
+     */
+    List<Book> findAllByIdCached(Collection<UUID> ids);
+
+    /**
+     * Ids of the books matching a qualified query, best rated first. Used while the search index
+     * is being built: ISBN and year clauses are equality and range predicates on indexed columns,
+     * so the planner can start from them; only unqualified words and title/author/genre clauses
+     * are substring matches.
+     */
+    Page<UUID> findIdsMatching(BookQuery query, Pageable pageable);
+}
@@ -0,0 +1,102 @@
+package com.shelve.bookcatalog.repository;
+
+import com.shelve.bookcatalog.entity.Book;
+import com.shelve.bookcatalog.search.BookQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.UUID;
+
+class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    // Keeps the IN list for cache misses within driver parameter limits
+    private static final int BATCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Custom methods aren't transactional by default: without one, a caller on a pool thread (bulk
+    // lookups load chunks in parallel) would unwrap a Session that is closed right away
+    @Override
+    @Transactional(readOnly = true)
+    public List<Book> findAllByIdCached(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Book> books = entityManager.unwrap(Session.class)
+                .byMultipleIds(Book.class)
+                .with(CacheMode.NORMAL)
+                .enableSessionCheck(true)
+                .withBatchSize(BATCH_SIZE)
+                .multiLoad(new ArrayList<>(ids));
+        return books.stream().filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public Page<UUID> findIdsMatching(BookQuery query, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<UUID> select = cb.createQuery(UUID.class);
+        Root<Book> book = select.from(Book.class);
+        select.select(book.get("id"))
+                .where(predicates(cb, book, query))
+                .orderBy(cb.desc(book.get("averageRating")), cb.asc(book.get("id")));
+        List<UUID> ids = entityManager.createQuery(select)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        CriteriaQuery<Long> count = cb.createQuery(Long.class);
+        Root<Book> counted = count.from(Book.class);
+        count.select(cb.count(counted)).where(predicates(cb, counted, query));
+        return PageableExecutionUtils.getPage(ids, pageable, () -> entityManager.createQuery(count).getSingleResult());
+    }
+
+    private Predicate[] predicates(CriteriaBuilder cb, Root<Book> book, BookQuery query) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (query.getIsbn() != null) {
+            predicates.add(cb.equal(book.get("isbn"), query.getIsbn()));
+        }
+        if (query.getYearFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(book.<LocalDate>get("publishedDate"),
+                    LocalDate.of(query.getYearFrom(), 1, 1)));
+        }
+        if (query.getYearTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(book.<LocalDate>get("publishedDate"),
+                    LocalDate.of(query.getYearTo(), 12, 31)));
+        }
+        query.getTitles().forEach(title -> predicates.add(contains(cb, book.get("title"), title)));
+        query.getAuthors().forEach(author -> predicates.add(contains(cb, book.get("author"), author)));
+        query.getGenres().forEach(genre -> predicates.add(contains(cb, book.get("genre"), genre)));
+        for (String word : query.getText().split("\\s+")) {
+            if (!word.isEmpty()) {
+                predicates.add(cb.or(contains(cb, book.get("title"), word), contains(cb, book.get("author"), word),
+                        contains(cb, book.get("genre"), word)));
+            }
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    private Predicate contains(CriteriaBuilder cb, Expression<String> column, String value) {
+        String escaped = value.replace("*", "").toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return cb.like(cb.lower(column), "%" + escaped + "%", '\\');
+    }
+}
@@ -0,0 +1,11 @@
+package com.shelve.bookcatalog.repository;
+
+import java.util.UUID;
+
+/**
+ * Projection carrying a book's leaderboard score, for cursors over the ranking.
+ */
+public interface BookScore {
+    UUID getId();
+    Double getScore();
+}
@@ -0,0 +1,14 @@
+package com.shelve.bookcatalog.repository;
+
+import java.util.UUID;
+
+/**
+ * Projection carrying the columns typeahead suggestions are built from.
+ */
+public interface BookSuggestionSource {
+    UUID getId();
+    String getTitle();
+    String getAuthor();
+    Double getAverageRating();
+    Integer getRatingsCount();
+}
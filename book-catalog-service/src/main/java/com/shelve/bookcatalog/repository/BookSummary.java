@@ -0,0 +1,23 @@
+package com.shelve.bookcatalog.repository;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Card/grid view of a book: everything list endpoints return, without the unbounded
+ * description or the audit timestamps. Full entities are only loaded for detail views.
+ */
+public interface BookSummary {
+    UUID getId();
+    String getTitle();
+    String getAuthor();
+    String getIsbn();
+    String getCoverUrl();
+    String getGenre();
+    LocalDate getPublishedDate();
+    Integer getPageCount();
+    String getPublisher();
+    String getLanguage();
+    Double getAverageRating();
+    Integer getRatingsCount();
+}
@@ -0,0 +1,9 @@
+package com.shelve.bookcatalog.repository;
+
+/**
+ * Number of books referencing a genre.
+ */
+public interface GenreCount {
+    Integer getGenreId();
+    long getBookCount();
+}
@@ -0,0 +1,9 @@
+package com.shelve.bookcatalog.repository;
+
+import com.shelve.bookcatalog.entity.IsbnAlias;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IsbnAliasRepository extends JpaRepository<IsbnAlias, String> {
+}
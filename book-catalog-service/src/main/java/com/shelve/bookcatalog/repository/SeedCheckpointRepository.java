@@ -0,0 +1,9 @@
+package com.shelve.bookcatalog.repository;
+
+import com.shelve.bookcatalog.entity.SeedCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SeedCheckpointRepository extends JpaRepository<SeedCheckpoint, String> {
+}
@@ -0,0 +1,119 @@
+package com.shelve.bookcatalog.search;
+
+import com.shelve.bookcatalog.entity.Isbns;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A search query with optional field qualifiers, e.g. {@code author:"le guin" year:1960..1979 earthsea}.
+ *
+ * Qualifiers are {@code title:}, {@code author:} and {@code genre:} (a word or quoted phrase, a
+ * trailing {@code *} matching as a prefix), {@code isbn:} (ISBN-10 or ISBN-13, hyphens and spaces
+ * ignored) and {@code year:} (a year or a range, either end of which may be left open:
+ * {@code 1990..}, {@code ..1979}). Unqualified words are matched across title, author and genre as before;
+ * anything that does not parse as a qualifier is kept as an unqualified word.
+ */
+@Getter
+public class BookQuery {
+
+    private final List<String> titles = new ArrayList<>();
+    private final List<String> authors = new ArrayList<>();
+    private final List<String> genres = new ArrayList<>();
+    private String isbn;
+    private Integer yearFrom;
+    private Integer yearTo;
+    // Unqualified words, space-joined
+    private String text = "";
+
+    private BookQuery() {
+    }
+
+    public static BookQuery parse(String query) {
+        BookQuery parsed = new BookQuery();
+        StringBuilder text = new StringBuilder();
+        int i = 0;
+        int length = query != null ? query.length() : 0;
+        while (i < length) {
+            if (Character.isWhitespace(query.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            int colon = -1;
+            while (i < length && !Character.isWhitespace(query.charAt(i)) && query.charAt(i) != '"') {
+                if (query.charAt(i) == ':' && colon < 0) {
+                    colon = i;
+                }
+                i++;
+            }
+            String value;
+            if (i < length && query.charAt(i) == '"') {
+                int close = query.indexOf('"', i + 1);
+                int end = close < 0 ? length : close;
+                value = query.substring(i + 1, end);
+                i = close < 0 ? length : close + 1;
+                // A trailing * right after the closing quote still means prefix
+                if (i < length && query.charAt(i) == '*') {
+                    value += "*";
+                    i++;
+                }
+            } else {
+                value = query.substring(colon >= 0 ? colon + 1 : start, i);
+            }
+            String field = colon >= 0 ? query.substring(start, colon).toLowerCase(Locale.ROOT) : null;
+            if (field == null || !parsed.qualify(field, value.trim())) {
+                text.append(' ').append(query, start, i);
+            }
+        }
+        parsed.text = text.toString().replace("\"", " ").trim();
+        return parsed;
+    }
+
+    private boolean qualify(String field, String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        switch (field) {
+            case "title" -> titles.add(value);
+            case "author" -> authors.add(value);
+            case "genre" -> genres.add(value);
+            case "isbn" -> {
+                String canonical = Isbns.toIsbn13(value);
+                if (canonical == null) {
+                    return false;
+                }
+                isbn = canonical;
+            }
+            case "year" -> {
+                return parseYears(value);
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean parseYears(String value) {
+        int range = value.indexOf("..");
+        String from = range >= 0 ? value.substring(0, range) : value;
+        String to = range >= 0 ? value.substring(range + 2) : value;
+        if (!from.matches("\\d{0,4}") || !to.matches("\\d{0,4}") || (from.isEmpty() && to.isEmpty())) {
+            return false;
+        }
+        yearFrom = from.isEmpty() ? null : Integer.valueOf(from);
+        yearTo = to.isEmpty() ? null : Integer.valueOf(to);
+        return true;
+    }
+
+    /**
+     * Whether the query uses any qualifier; unqualified queries take the plain search path.
+     */
+    public boolean isQualified() {
+        return isbn != null || yearFrom != null || yearTo != null
+                || !titles.isEmpty() || !authors.isEmpty() || !genres.isEmpty();
+    }
+}
@@ -0,0 +1,461 @@
+package com.shelve.bookcatalog.search;
+
+import com.shelve.bookcatalog.entity.Book;
+import com.shelve.bookcatalog.event.BooksChangedEvent;
+import com.shelve.bookcatalog.event.CatalogReloadedEvent;
+import com.shelve.bookcatalog.repository.BookIndexSource;
+import com.shelve.bookcatalog.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Embedded Lucene full-text index over the book catalog.
+ * Title, author and genre are indexed as separate fields and ranked with BM25,
+ * title matches weighing more than author matches, and author more than genre.
+ * The index is rebuilt from the database on startup and kept near-real-time
+ * by {@link BooksChangedEvent}s; until the first rebuild completes, callers
+ * should fall back to the database search. A rebuild streams the rows into a
+ * fresh index in the other of two directories and swaps it in once committed,
+ * so searches keep using the previous index meanwhile.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookSearchIndex {
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_TITLE = "title";
+    private static final String FIELD_AUTHOR = "author";
+    private static final String FIELD_GENRE = "genre";
+    // Filter-only fields for qualified queries: exact (canonical ISBN-13) ISBN and publication year
+    private static final String FIELD_ISBN = "isbn";
+    private static final String FIELD_YEAR = "year";
+
+    private static final Map<String, Float> FIELD_BOOSTS = new LinkedHashMap<>();
+
+    static {
+        FIELD_BOOSTS.put(FIELD_TITLE, 3.0f);
+        FIELD_BOOSTS.put(FIELD_AUTHOR, 2.0f);
+        FIELD_BOOSTS.put(FIELD_GENRE, 1.0f);
+    }
+
+    // Prefix matches on the last (possibly half-typed) token count for less than exact terms
+    private static final float PREFIX_BOOST_FACTOR = 0.5f;
+
+    private final BookRepository bookRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    @Value("${book-search.index-dir:${java.io.tmpdir}/shelve-book-index}")
+    private String indexDir;
+
+    private volatile Index index;
+    // Directory (0 or 1) of the live index; a rebuild writes the other one. Guarded by rebuild()
+    private int slot;
+    private final Object writeLock = new Object();
+    // Books changed while a rebuild runs, indexed into the rebuilt index before it is swapped in
+    private List<Book> replay;
+    private volatile boolean ready = false;
+
+    @PostConstruct
+    void open() throws IOException {
+        index = Index.open(Path.of(indexDir, "0"), IndexWriterConfig.OpenMode.CREATE_OR_APPEND, analyzer);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        index.close();
+    }
+
+    /**
+     * Rebuild in the background so the service does not wait on a full table read to start.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuildInBackground();
+    }
+
+    @EventListener(CatalogReloadedEvent.class)
+    public void onCatalogReloaded() {
+        rebuildInBackground();
+    }
+
+    private void rebuildInBackground() {
+        Thread rebuild = new Thread(this::rebuild, "book-index-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (writeLock) {
+            replay = new ArrayList<>();
+        }
+        int next = 1 - slot;
+        Index rebuilt = null;
+        try {
+            rebuilt = Index.open(Path.of(indexDir, String.valueOf(next)), IndexWriterConfig.OpenMode.CREATE, analyzer);
+            IndexWriter writer = rebuilt.writer;
+            long[] indexed = {0};
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<BookIndexSource> books = bookRepository.streamIndexSources()) {
+                    books.forEach(book -> {
+                        addDocument(writer, toDocument(book.getId(), book.getTitle(), book.getAuthor(),
+                                book.getGenre(), book.getIsbn(), book.getPublishedDate()));
+                        indexed[0]++;
+                    });
+                }
+            });
+
+            Index previous;
+            synchronized (writeLock) {
+                for (Book book : replay) {
+                    update(writer, book);
+                }
+                writer.commit();
+                rebuilt.searcherManager.maybeRefreshBlocking();
+                previous = index;
+                index = rebuilt;
+                replay = null;
+            }
+            slot = next;
+            ready = true;
+            // Searches still holding one of its searchers finish on the files they already opened
+            previous.close();
+            log.info("Search index rebuilt with {} books in {} ms", indexed[0], System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to rebuild search index: {}", e.getMessage());
+            if (rebuilt != null && rebuilt != index) {
+                rebuilt.closeQuietly();
+            }
+        } finally {
+            synchronized (writeLock) {
+                replay = null;
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksChanged(BooksChangedEvent event) {
+        index(event.getBooks());
+    }
+
+    public void index(Collection<Book> books) {
+        synchronized (writeLock) {
+            if (replay != null) {
+                replay.addAll(books);
+            }
+            try {
+                for (Book book : books) {
+                    update(index.writer, book);
+                }
+                index.searcherManager.maybeRefresh();
+            } catch (IOException e) {
+                log.warn("Failed to index {} books: {}", books.size(), e.getMessage());
+            }
+        }
+    }
+
+    private void update(IndexWriter writer, Book book) throws IOException {
+        if (book.getId() == null) {
+            return;
+        }
+        writer.updateDocument(new Term(FIELD_ID, book.getId().toString()), toDocument(book.getId(), book.getTitle(),
+                book.getAuthor(), book.getGenre(), book.getIsbn(), book.getPublishedDate()));
+    }
+
+    private static void addDocument(IndexWriter writer, Document document) {
+        try {
+            writer.addDocument(document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ranked full-text search. Every query token must match in at least one field;
+     * the last token also matches as a prefix so results keep up with the user typing.
+     *
+     * @return the ids of the requested page in relevance order, or empty if the index is not ready
+     */
+    public Optional<SearchHits> search(String text, int page, int size) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        try {
+            return run(buildQuery(text), page, size);
+        } catch (IOException e) {
+            log.warn("Search index query failed for '{}': {}", text, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Search with field qualifiers, compiled into one Lucene query. ISBN and year become
+     * non-scoring filters on an exact term and a points (BKD) range; title, author and genre
+     * become phrase or prefix clauses on their own fields. Lucene intersects the clauses
+     * starting from the cheapest, so an ISBN term or a narrow year range drives the match and
+     * the other clauses are only checked against its hits, rather than scanning the catalog.
+     *
+     * @return the ids of the requested page in relevance order, or empty if the index is not ready
+     */
+    public Optional<SearchHits> search(BookQuery bookQuery, int page, int size) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        try {
+            return run(buildQuery(bookQuery), page, size);
+        } catch (IOException e) {
+            log.warn("Search index query failed for qualified query: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Optional<SearchHits> run(Query query, int page, int size) throws IOException {
+        if (query == null) {
+            return Optional.of(new SearchHits(List.of(), 0));
+        }
+        Index current = index;
+        IndexSearcher searcher;
+        try {
+            searcher = current.searcherManager.acquire();
+        } catch (AlreadyClosedException e) {
+            // Swapped out by a rebuild just now
+            current = index;
+            searcher = current.searcherManager.acquire();
+        }
+        try {
+            TopDocs topDocs = searcher.search(query, Math.max(1, (page + 1) * size));
+            StoredFields storedFields = searcher.storedFields();
+
+            List<UUID> ids = new ArrayList<>();
+            for (int i = page * size; i < topDocs.scoreDocs.length; i++) {
+                ids.add(UUID.fromString(storedFields.document(topDocs.scoreDocs[i].doc).get(FIELD_ID)));
+            }
+            return Optional.of(new SearchHits(ids, searcher.count(query)));
+        } finally {
+            release(current, searcher);
+        }
+    }
+
+    private Query buildQuery(BookQuery bookQuery) throws IOException {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        boolean scored = false;
+        for (String title : bookQuery.getTitles()) {
+            scored |= addFieldClause(query, FIELD_TITLE, title);
+        }
+        for (String author : bookQuery.getAuthors()) {
+            scored |= addFieldClause(query, FIELD_AUTHOR, author);
+        }
+        for (String genre : bookQuery.getGenres()) {
+            scored |= addFieldClause(query, FIELD_GENRE, genre);
+        }
+        scored |= addTextClauses(query, analyze(bookQuery.getText()));
+
+        if (bookQuery.getIsbn() != null) {
+            query.add(new TermQuery(new Term(FIELD_ISBN, bookQuery.getIsbn())), BooleanClause.Occur.FILTER);
+        }
+        if (bookQuery.getYearFrom() != null || bookQuery.getYearTo() != null) {
+            int from = bookQuery.getYearFrom() != null ? bookQuery.getYearFrom() : Integer.MIN_VALUE;
+            int to = bookQuery.getYearTo() != null ? bookQuery.getYearTo() : Integer.MAX_VALUE;
+            query.add(IntPoint.newRangeQuery(FIELD_YEAR, from, to), BooleanClause.Occur.FILTER);
+        }
+        // A query of filters alone still needs a clause to match documents from
+        if (!scored) {
+            query.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+
+    // A word or phrase that must appear in the field; a trailing * makes the last word a prefix
+    private boolean addFieldClause(BooleanQuery.Builder query, String field, String value) throws IOException {
+        boolean prefix = value.endsWith("*");
+        List<String> tokens = analyze(prefix ? value.substring(0, value.length() - 1) : value);
+        if (tokens.isEmpty()) {
+            return false;
+        }
+        if (prefix) {
+            for (int i = 0; i < tokens.size(); i++) {
+                Term term = new Term(field, tokens.get(i));
+                query.add(i == tokens.size() - 1 ? new PrefixQuery(term) : new TermQuery(term), BooleanClause.Occur.MUST);
+            }
+        } else if (tokens.size() == 1) {
+            query.add(new TermQuery(new Term(field, tokens.get(0))), BooleanClause.Occur.MUST);
+        } else {
+            query.add(new PhraseQuery(field, tokens.toArray(new String[0])), BooleanClause.Occur.MUST);
+        }
+        return true;
+    }
+
+    private Query buildQuery(String text) throws IOException {
+        List<String> tokens = analyze(text);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        addTextClauses(query, tokens);
+        return query.build();
+    }
+
+    private boolean addTextClauses(BooleanQuery.Builder query, List<String> tokens) {
+        for (int i = 0; i < tokens.size(); i++) {
+            boolean last = i == tokens.size() - 1;
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+
+            for (Map.Entry<String, Float> field : FIELD_BOOSTS.entrySet()) {
+                Term term = new Term(field.getKey(), tokens.get(i));
+                anyField.add(new BoostQuery(new TermQuery(term), field.getValue()), BooleanClause.Occur.SHOULD);
+                if (last) {
+                    anyField.add(new BoostQuery(new PrefixQuery(term), field.getValue() * PREFIX_BOOST_FACTOR),
+                            BooleanClause.Occur.SHOULD);
+                }
+            }
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+        return !tokens.isEmpty();
+    }
+
+    private List<String> analyze(String text) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        try (TokenStream stream = analyzer.tokenStream(FIELD_TITLE, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            stream.end();
+        }
+        return tokens;
+    }
+
+    private Document toDocument(UUID id, String title, String author, String genre, String isbn,
+                                LocalDate publishedDate) {
+        Document doc = new Document();
+        doc.add(new StringField(FIELD_ID, id.toString(), Field.Store.YES));
+        doc.add(new TextField(FIELD_TITLE, nullToEmpty(title), Field.Store.NO));
+        doc.add(new TextField(FIELD_AUTHOR, nullToEmpty(author), Field.Store.NO));
+        doc.add(new TextField(FIELD_GENRE, nullToEmpty(genre), Field.Store.NO));
+        if (isbn != null) {
+            doc.add(new StringField(FIELD_ISBN, isbn, Field.Store.NO));
+        }
+        if (publishedDate != null) {
+            doc.add(new IntPoint(FIELD_YEAR, publishedDate.getYear()));
+        }
+        return doc;
+    }
+
+    private void release(Index owner, IndexSearcher searcher) {
+        if (searcher == null) {
+            return;
+        }
+        try {
+            owner.searcherManager.release(searcher);
+        } catch (IOException e) {
+            log.warn("Failed to release index searcher: {}", e.getMessage());
+        }
+    }
+
+    private String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    // One on-disk index with its writer and near-real-time searchers
+    private static final class Index {
+        private final Directory directory;
+        private final IndexWriter writer;
+        private final SearcherManager searcherManager;
+
+        private Index(Directory directory, IndexWriter writer, SearcherManager searcherManager) {
+            this.directory = directory;
+            this.writer = writer;
+            this.searcherManager = searcherManager;
+        }
+
+        static Index open(Path path, IndexWriterConfig.OpenMode mode, Analyzer analyzer) throws IOException {
+            Directory directory = FSDirectory.open(path);
+            IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(mode));
+            return new Index(directory, writer, new SearcherManager(writer, null));
+        }
+
+        void close() throws IOException {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        }
+
+        void closeQuietly() {
+            try {
+                close();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to close search index: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SearchHits {
+        private final List<UUID> ids;
+        private final long totalHits;
+    }
+}
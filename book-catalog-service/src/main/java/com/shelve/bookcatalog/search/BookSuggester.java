@@ -0,0 +1,332 @@
+package com.shelve.bookcatalog.search;
+
+import com.shelve.bookcatalog.dto.SuggestionResponse;
+import com.shelve.bookcatalog.entity.Book;
+import com.shelve.bookcatalog.event.BooksChangedEvent;
+import com.shelve.bookcatalog.event.CatalogReloadedEvent;
+import com.shelve.bookcatalog.repository.BookRepository;
+import com.shelve.bookcatalog.repository.BookSuggestionSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Typeahead suggestions over book titles and authors, served entirely from memory.
+ *
+ * Suggestions are ranked by popularity (ratings count, then average rating; an author's weight is
+ * the sum over their books) and matched on the start of the title or name, or of the title without
+ * a leading article and of the author's last name. The {@link SuggestIndex} is immutable: rebuilds
+ * read the catalog into a new index and swap it in, so lookups never wait. Books created since the
+ * last rebuild go into a small second index, rebuilt from just those books on each refresh, and
+ * lookups merge the two; once more than {@code max-recent} books have piled up there, the refresh
+ * does a full rebuild instead. A periodic full rebuild also brings weights up to date.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookSuggester {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final String[] ARTICLES = {"the ", "a ", "an "};
+    // Longer keys add depth to the index without narrowing any realistic prefix further
+    private static final int MAX_KEY_LENGTH = 64;
+
+    private final BookRepository bookRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${book-suggest.max-results:10}")
+    private int maxResults;
+
+    // Prefixes matching more keys than this get their top suggestions precomputed
+    @Value("${book-suggest.scan-limit:512}")
+    private int scanLimit;
+
+    // New books held in the recent index before a refresh folds everything into a full rebuild
+    @Value("${book-suggest.max-recent:20000}")
+    private int maxRecent;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Queue<NewBook> pending = new ConcurrentLinkedQueue<>();
+    // Books created since the last full rebuild started; guarded by itself
+    private final List<NewBook> recentBooks = new ArrayList<>();
+    private volatile SuggestIndex index = SuggestIndex.EMPTY;
+    private volatile SuggestIndex recent = SuggestIndex.EMPTY;
+    private Timer lookupTimer;
+
+    @PostConstruct
+    void init() {
+        lookupTimer = meterRegistry.timer("book.suggest.latency");
+    }
+
+    /**
+     * Best suggestions for what has been typed so far; empty until the first build completes.
+     */
+    public List<SuggestionResponse> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        int max = Math.min(limit, maxResults);
+        if (prefix.isEmpty() || max <= 0) {
+            return List.of();
+        }
+        long startedAt = System.nanoTime();
+        SuggestIndex current = index;
+        SuggestIndex added = recent;
+        int[] top = current.lookup(prefix, max);
+        List<SuggestionResponse> suggestions = added.size() == 0
+                ? toResponses(current, top)
+                : merge(current, top, added, added.lookup(prefix, max), max);
+        lookupTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        return suggestions;
+    }
+
+    private static List<SuggestionResponse> toResponses(SuggestIndex index, int[] top) {
+        List<SuggestionResponse> suggestions = new ArrayList<>(top.length);
+        for (int suggestion : top) {
+            suggestions.add(toResponse(index.text(suggestion), index.bookId(suggestion)));
+        }
+        return suggestions;
+    }
+
+    // Top suggestions of both indexes; an author in both gets the sum of their weights
+    private static List<SuggestionResponse> merge(SuggestIndex main, int[] mainTop, SuggestIndex added,
+                                                  int[] addedTop, int limit) {
+        Map<String, Candidate> candidates = new LinkedHashMap<>();
+        for (int suggestion : mainTop) {
+            candidates.put(candidateKey(main, suggestion), new Candidate(main.text(suggestion),
+                    main.bookId(suggestion), main.weight(suggestion)));
+        }
+        for (int suggestion : addedTop) {
+            UUID bookId = added.bookId(suggestion);
+            candidates.merge(candidateKey(added, suggestion),
+                    new Candidate(added.text(suggestion), bookId, added.weight(suggestion)),
+                    // A book both indexes picked up keeps one entry; author weights add up
+                    (existing, extra) -> bookId != null ? existing
+                            : new Candidate(existing.text(), null, existing.weight() + extra.weight()));
+        }
+        return candidates.values().stream()
+                .sorted(Comparator.comparingDouble(Candidate::weight).reversed())
+                .limit(limit)
+                .map(candidate -> toResponse(candidate.text(), candidate.bookId()))
+                .toList();
+    }
+
+    private static String candidateKey(SuggestIndex index, int suggestion) {
+        UUID bookId = index.bookId(suggestion);
+        return bookId != null ? bookId.toString() : "author:" + normalize(index.text(suggestion));
+    }
+
+    private static SuggestionResponse toResponse(String text, UUID bookId) {
+        return SuggestionResponse.builder()
+                .text(text)
+                .type(bookId != null ? "TITLE" : "AUTHOR")
+                .bookId(bookId != null ? bookId.toString() : null)
+                .build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksChanged(BooksChangedEvent event) {
+        // Only new books add suggestions; rating updates wait for the periodic rebuild
+        if (event.isCreated()) {
+            for (Book book : event.getBooks()) {
+                pending.add(new NewBook(book.getId(), book.getTitle(), book.getAuthor(),
+                        book.getAverageRating(), book.getRatingsCount()));
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildInBackground();
+    }
+
+    @EventListener
+    public void onCatalogReloaded(CatalogReloadedEvent event) {
+        rebuildInBackground();
+    }
+
+    /**
+     * Index the books created since the last refresh: rebuild the recent index from the books
+     * created since the last full rebuild, or do a full rebuild once there are too many of them.
+     */
+    @Scheduled(fixedDelayString = "${book-suggest.refresh-interval:PT30S}")
+    public void refresh() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        boolean full;
+        synchronized (recentBooks) {
+            drainPending();
+            recent = buildRecent();
+            full = recentBooks.size() > maxRecent;
+        }
+        if (full) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${book-suggest.rebuild-interval:PT1H}",
+            initialDelayString = "${book-suggest.rebuild-interval:PT1H}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    private void rebuildInBackground() {
+        Thread thread = new Thread(this::rebuild, "suggest-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Build a new index from the catalog and swap it in.
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long startedAt = System.currentTimeMillis();
+            // Books created so far are committed, so the catalog read below covers them. Books
+            // created from here on stay in the recent index, if not already in this one
+            int covered;
+            synchronized (recentBooks) {
+                drainPending();
+                covered = recentBooks.size();
+            }
+            SuggestIndex.Builder builder = new SuggestIndex.Builder();
+            Map<String, Author> authors = new HashMap<>();
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<BookSuggestionSource> books = bookRepository.streamSuggestionSources()) {
+                    books.forEach(book -> addBook(builder, authors, book.getId(), book.getTitle(), book.getAuthor(),
+                            popularity(book.getRatingsCount(), book.getAverageRating())));
+                }
+            });
+            authors.forEach((key, author) -> builder.add(author.name, null, author.weight, authorKeys(key)));
+            SuggestIndex rebuilt = builder.build(maxResults, scanLimit);
+            synchronized (recentBooks) {
+                index = rebuilt;
+                recentBooks.subList(0, covered).clear();
+                drainPending();
+                recent = buildRecent();
+            }
+            log.info("Rebuilt typeahead index with {} suggestions in {} ms",
+                    rebuilt.size(), System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            log.error("Typeahead index rebuild failed: {}", e.getMessage(), e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void drainPending() {
+        for (NewBook book = pending.poll(); book != null; book = pending.poll()) {
+            recentBooks.add(book);
+        }
+    }
+
+    // Only ever the books since the last full rebuild, so this stays cheap
+    private SuggestIndex buildRecent() {
+        if (recentBooks.isEmpty()) {
+            return SuggestIndex.EMPTY;
+        }
+        SuggestIndex.Builder builder = new SuggestIndex.Builder();
+        Map<String, Author> authors = new HashMap<>();
+        for (NewBook book : recentBooks) {
+            addBook(builder, authors, book.id(), book.title(), book.author(),
+                    popularity(book.ratingsCount(), book.averageRating()));
+        }
+        authors.forEach((key, author) -> builder.add(author.name, null, author.weight, authorKeys(key)));
+        return builder.build(maxResults, scanLimit);
+    }
+
+    private void addBook(SuggestIndex.Builder builder, Map<String, Author> authors, UUID id, String bookTitle,
+                         String bookAuthor, float weight) {
+        String title = normalize(bookTitle);
+        if (!title.isEmpty()) {
+            List<String> keys = new ArrayList<>(2);
+            keys.add(title);
+            for (String article : ARTICLES) {
+                if (title.startsWith(article) && title.length() > article.length()) {
+                    keys.add(title.substring(article.length()));
+                }
+            }
+            builder.add(bookTitle.trim(), id, weight, keys);
+        }
+        if (bookAuthor != null) {
+            for (String name : bookAuthor.split(",")) {
+                String key = normalize(name);
+                if (!key.isEmpty()) {
+                    authors.computeIfAbsent(key, k -> new Author(name.trim())).weight += weight;
+                }
+            }
+        }
+    }
+
+    // "j r r tolkien" is also found as "tolkien"
+    private static List<String> authorKeys(String name) {
+        int lastSpace = name.lastIndexOf(' ');
+        return lastSpace > 0 ? List.of(name, name.substring(lastSpace + 1)) : List.of(name);
+    }
+
+    private static float popularity(Integer ratingsCount, Double averageRating) {
+        int count = ratingsCount != null ? ratingsCount : 0;
+        double rating = averageRating != null ? averageRating : 0.0;
+        // Rating (0-5) only breaks ties between equally rated-on books
+        return (float) (count + rating / 10);
+    }
+
+    /**
+     * Lowercase, accents stripped, punctuation collapsed to single spaces.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        String key = SEPARATORS.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private record NewBook(UUID id, String title, String author, Double averageRating, Integer ratingsCount) {
+    }
+
+    private record Candidate(String text, UUID bookId, float weight) {
+    }
+
+    private static class Author {
+        private final String name;
+        private float weight;
+
+        Author(String name) {
+            this.name = name;
+        }
+    }
+}
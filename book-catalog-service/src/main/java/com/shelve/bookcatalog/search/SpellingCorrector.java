@@ -0,0 +1,287 @@
+package com.shelve.bookcatalog.search;
+
+import com.shelve.bookcatalog.event.BooksChangedEvent;
+import com.shelve.bookcatalog.event.CatalogReloadedEvent;
+import com.shelve.bookcatalog.repository.BookRepository;
+import com.shelve.bookcatalog.repository.BookSuggestionSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * "Did you mean" correction of search queries against the words of the catalog's titles and authors.
+ *
+ * Uses symmetric-delete lookups: every vocabulary word is indexed under the strings obtained by
+ * deleting up to {@code max-edit-distance} characters from its first {@value #PREFIX_LENGTH}
+ * characters, so a misspelling is matched by generating its own deletes and looking them up,
+ * with no edit-distance search over the vocabulary. Candidates are then verified with a real
+ * (Damerau-Levenshtein) distance; the closest, most frequent word wins. The delete index holds
+ * hashes rather than strings, packed into one sorted array, since verification weeds out
+ * collisions anyway. Rebuilt like the typeahead index: at startup, after new books, periodically.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SpellingCorrector {
+
+    // Deletes are generated from this many leading characters only, which bounds the index size
+    private static final int PREFIX_LENGTH = 7;
+    // Shorter words are left alone: too many real words lie within one edit of them
+    private static final int MIN_WORD_LENGTH = 4;
+
+    private final BookRepository bookRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${book-search.spelling.max-edit-distance:2}")
+    private int maxEditDistance;
+
+    // Most frequent words kept in the vocabulary
+    @Value("${book-search.spelling.max-words:200000}")
+    private int maxWords;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicBoolean stale = new AtomicBoolean();
+    private volatile Vocabulary vocabulary;
+
+    /**
+     * The query with its unknown words replaced by their closest catalog words, or empty if
+     * every word is known, nothing close was found, or the vocabulary isn't built yet.
+     */
+    public Optional<String> correct(String query) {
+        Vocabulary current = vocabulary;
+        if (current == null) {
+            return Optional.empty();
+        }
+        String[] words = BookSuggester.normalize(query).split(" ");
+        boolean changed = false;
+        for (int i = 0; i < words.length; i++) {
+            String word = words[i];
+            if (word.length() < MIN_WORD_LENGTH || current.contains(word) || isNumber(word)) {
+                continue;
+            }
+            String correction = current.closest(word, word.length() <= 5 ? 1 : maxEditDistance);
+            if (correction != null) {
+                words[i] = correction;
+                changed = true;
+            }
+        }
+        return changed ? Optional.of(String.join(" ", words)) : Optional.empty();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksChanged(BooksChangedEvent event) {
+        if (event.isCreated()) {
+            stale.set(true);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildInBackground();
+    }
+
+    @EventListener
+    public void onCatalogReloaded(CatalogReloadedEvent event) {
+        rebuildInBackground();
+    }
+
+    @Scheduled(fixedDelayString = "${book-search.spelling.refresh-interval:PT5M}")
+    public void refresh() {
+        if (stale.get()) {
+            rebuild();
+        }
+    }
+
+    private void rebuildInBackground() {
+        Thread thread = new Thread(this::rebuild, "spelling-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Count the words of every title and author, keep the most frequent, and swap in their delete index.
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long startedAt = System.currentTimeMillis();
+            stale.set(false);
+            Map<String, Integer> counts = new HashMap<>();
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<BookSuggestionSource> books = bookRepository.streamSuggestionSources()) {
+                    books.forEach(book -> {
+                        countWords(counts, book.getTitle());
+                        countWords(counts, book.getAuthor());
+                    });
+                }
+            });
+            Vocabulary rebuilt = new Vocabulary(counts, maxWords, maxEditDistance);
+            vocabulary = rebuilt;
+            log.info("Rebuilt spelling vocabulary of {} words ({} deletes) in {} ms",
+                    rebuilt.words.length, rebuilt.deletes.length, System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            stale.set(true);
+            log.error("Spelling vocabulary rebuild failed: {}", e.getMessage(), e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private static void countWords(Map<String, Integer> counts, String text) {
+        for (String word : BookSuggester.normalize(text).split(" ")) {
+            if (word.length() >= MIN_WORD_LENGTH && !isNumber(word)) {
+                counts.merge(word, 1, Integer::sum);
+            }
+        }
+    }
+
+    private static boolean isNumber(String word) {
+        return word.chars().allMatch(Character::isDigit);
+    }
+
+    private static final class Vocabulary {
+        private final String[] words;
+        private final int[] counts;
+        private final Map<String, Integer> ids;
+        // (hash of delete << 32 | word id), sorted
+        private final long[] deletes;
+        private final int maxEditDistance;
+
+        Vocabulary(Map<String, Integer> wordCounts, int maxWords, int maxEditDistance) {
+            this.maxEditDistance = maxEditDistance;
+            this.words = wordCounts.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .limit(maxWords)
+                    .map(Map.Entry::getKey)
+                    .toArray(String[]::new);
+            this.counts = new int[words.length];
+            this.ids = new HashMap<>(words.length * 2);
+            long[] entries = new long[words.length * 8];
+            int size = 0;
+            for (int id = 0; id < words.length; id++) {
+                counts[id] = wordCounts.get(words[id]);
+                ids.put(words[id], id);
+                for (String delete : deletes(words[id], maxEditDistance)) {
+                    if (size == entries.length) {
+                        entries = Arrays.copyOf(entries, size * 2);
+                    }
+                    entries[size++] = ((long) delete.hashCode() << 32) | id;
+                }
+            }
+            this.deletes = Arrays.copyOf(entries, size);
+            Arrays.sort(deletes);
+        }
+
+        boolean contains(String word) {
+            return ids.containsKey(word);
+        }
+
+        String closest(String word, int maxDistance) {
+            int bestId = -1;
+            int bestDistance = maxDistance + 1;
+            Set<Integer> seen = new HashSet<>();
+            for (String delete : deletes(word, Math.min(maxDistance, maxEditDistance))) {
+                long from = (long) delete.hashCode() << 32;
+                int i = lowerBound(from);
+                while (i < deletes.length && (deletes[i] >>> 32) == (from >>> 32)) {
+                    int id = (int) deletes[i++];
+                    String candidate = words[id];
+                    if (!seen.add(id) || Math.abs(candidate.length() - word.length()) > maxDistance) {
+                        continue;
+                    }
+                    int distance = distance(word, candidate, maxDistance);
+                    if (distance < bestDistance || (distance == bestDistance && bestId >= 0 && counts[id] > counts[bestId])) {
+                        bestId = id;
+                        bestDistance = distance;
+                    }
+                }
+            }
+            return bestId >= 0 ? words[bestId] : null;
+        }
+
+        private int lowerBound(long key) {
+            int lo = 0;
+            int hi = deletes.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (deletes[mid] < key) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // The word's prefix and everything reachable from it by deleting up to maxDistance characters
+        private static Set<String> deletes(String word, int maxDistance) {
+            Set<String> result = new HashSet<>();
+            String prefix = word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+            result.add(prefix);
+            addDeletes(prefix, maxDistance, result);
+            return result;
+        }
+
+        private static void addDeletes(String word, int remaining, Set<String> result) {
+            if (remaining == 0 || word.length() <= 1) {
+                return;
+            }
+            for (int i = 0; i < word.length(); i++) {
+                String delete = word.substring(0, i) + word.substring(i + 1);
+                if (result.add(delete)) {
+                    addDeletes(delete, remaining - 1, result);
+                }
+            }
+        }
+
+        // Optimal string alignment distance (adjacent transpositions count as one edit), capped at max + 1
+        private static int distance(String a, String b, int max) {
+            int[] previous2 = new int[b.length() + 1];
+            int[] previous = new int[b.length() + 1];
+            int[] current = new int[b.length() + 1];
+            for (int j = 0; j <= b.length(); j++) {
+                previous[j] = j;
+            }
+            for (int i = 1; i <= a.length(); i++) {
+                current[0] = i;
+                int rowMin = current[0];
+                for (int j = 1; j <= b.length(); j++) {
+                    int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                    current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                    if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                        current[j] = Math.min(current[j], previous2[j - 2] + 1);
+                    }
+                    rowMin = Math.min(rowMin, current[j]);
+                }
+                if (rowMin > max) {
+                    return max + 1;
+                }
+                int[] recycled = previous2;
+                previous2 = previous;
+                previous = current;
+                current = recycled;
+            }
+            return previous[b.length()];
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.shelve.bookcatalog.search;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable prefix index from normalized keys to weighted suggestions.
+ *
+ * Keys are kept sorted in one packed UTF-8 array, so the keys under a prefix are one contiguous
+ * range found by binary search. Small ranges are scanned for their top suggestions; prefixes
+ * matching more than {@code scanLimit} keys (the upper, bushy part of the trie) have their top
+ * suggestions precomputed at build time. Every lookup is therefore two binary searches plus
+ * either a hash lookup or a bounded scan.
+ */
+final class SuggestIndex {
+
+    static final SuggestIndex EMPTY = new Builder().build(0, 1);
+
+    // Suggestions: display text, book id (0/0 for authors) and weight
+    private final byte[] texts;
+    private final int[] textOffsets;
+    private final long[] idMost;
+    private final long[] idLeast;
+    private final float[] weights;
+
+    // Keys, sorted, each pointing at its suggestion
+    private final byte[] keys;
+    private final int[] keyOffsets;
+    private final int[] keySuggestions;
+
+    // Top suggestions of heavy prefixes; the prefix bytes are held as a Latin-1 string
+    private final Map<String, int[]> heavy;
+    private final int maxResults;
+    private final int scanLimit;
+
+    private SuggestIndex(Builder builder, int[] order, int maxResults, int scanLimit) {
+        this.texts = builder.texts.toByteArray();
+        this.textOffsets = builder.textOffsets.toArray();
+        this.idMost = builder.idMost.toArray();
+        this.idLeast = builder.idLeast.toArray();
+        this.weights = builder.weights.toArray();
+        this.maxResults = maxResults;
+        this.scanLimit = scanLimit;
+
+        // Pack the keys in sorted order
+        byte[] unsortedKeys = builder.keys.toByteArray();
+        int[] unsortedOffsets = builder.keyOffsets.toArray();
+        int[] unsortedSuggestions = builder.keySuggestions.toArray();
+        this.keys = new byte[unsortedKeys.length];
+        this.keyOffsets = new int[order.length + 1];
+        this.keySuggestions = new int[order.length];
+        int position = 0;
+        for (int i = 0; i < order.length; i++) {
+            int key = order[i];
+            int length = unsortedOffsets[key + 1] - unsortedOffsets[key];
+            System.arraycopy(unsortedKeys, unsortedOffsets[key], keys, position, length);
+            keyOffsets[i] = position;
+            keySuggestions[i] = unsortedSuggestions[key];
+            position += length;
+        }
+        keyOffsets[order.length] = position;
+
+        this.heavy = new HashMap<>();
+        if (order.length > 0) {
+            collect(0, order.length, 0);
+        }
+    }
+
+    int size() {
+        return weights.length;
+    }
+
+    /**
+     * The best suggestions for keys starting with the (already normalized) prefix, best first.
+     */
+    int[] lookup(String prefix, int limit) {
+        byte[] bytes = prefix.getBytes(StandardCharsets.UTF_8);
+        int lo = lowerBound(bytes, false);
+        int hi = lowerBound(bytes, true);
+        if (lo >= hi) {
+            return new int[0];
+        }
+        int[] top = hi - lo <= scanLimit ? null : heavy.get(new String(bytes, StandardCharsets.ISO_8859_1));
+        if (top == null) {
+            top = scan(lo, hi);
+        }
+        return top.length > limit ? Arrays.copyOf(top, limit) : top;
+    }
+
+    String text(int suggestion) {
+        return new String(texts, textOffsets[suggestion], textOffsets[suggestion + 1] - textOffsets[suggestion],
+                StandardCharsets.UTF_8);
+    }
+
+    float weight(int suggestion) {
+        return weights[suggestion];
+    }
+
+    UUID bookId(int suggestion) {
+        if (idMost[suggestion] == 0 && idLeast[suggestion] == 0) {
+            return null;
+        }
+        return new UUID(idMost[suggestion], idLeast[suggestion]);
+    }
+
+    // First key >= prefix, or with after set, the first key past every key starting with prefix
+    private int lowerBound(byte[] prefix, boolean after) {
+        int lo = 0;
+        int hi = keySuggestions.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int from = keyOffsets[mid];
+            int to = keyOffsets[mid + 1];
+            int cmp = Arrays.compareUnsigned(keys, from, Math.min(to, from + prefix.length), prefix, 0, prefix.length);
+            boolean below = after ? cmp <= 0 : cmp < 0;
+            if (below) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int[] scan(int lo, int hi) {
+        TopK top = new TopK(maxResults, weights);
+        for (int i = lo; i < hi; i++) {
+            top.offer(keySuggestions[i]);
+        }
+        return top.toArray();
+    }
+
+    // Keys [lo, hi) share their first depth bytes; records the prefix's top suggestions if it is heavy
+    private int[] collect(int lo, int hi, int depth) {
+        if (hi - lo <= scanLimit) {
+            return scan(lo, hi);
+        }
+        TopK top = new TopK(maxResults, weights);
+        int i = lo;
+        // Keys that end here sort before their longer siblings
+        while (i < hi && keyLength(i) == depth) {
+            top.offer(keySuggestions[i++]);
+        }
+        while (i < hi) {
+            byte next = keys[keyOffsets[i] + depth];
+            int end = i + 1;
+            while (end < hi && keys[keyOffsets[end] + depth] == next) {
+                end++;
+            }
+            for (int suggestion : collect(i, end, depth + 1)) {
+                top.offer(suggestion);
+            }
+            i = end;
+        }
+        int[] result = top.toArray();
+        heavy.put(new String(keys, keyOffsets[lo], depth, StandardCharsets.ISO_8859_1), result);
+        return result;
+    }
+
+    private int keyLength(int key) {
+        return keyOffsets[key + 1] - keyOffsets[key];
+    }
+
+    /**
+     * Best-first list of at most k distinct suggestions; k is small, so insertion into a sorted array.
+     */
+    private static class TopK {
+        private final int[] best;
+        private final float[] weights;
+        private int count;
+
+        TopK(int k, float[] weights) {
+            this.best = new int[k];
+            this.weights = weights;
+        }
+
+        void offer(int suggestion) {
+            if (best.length == 0 || (count == best.length && !ranksAbove(suggestion, best[count - 1]))) {
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                if (best[i] == suggestion) {
+                    return;
+                }
+            }
+            int i = count < best.length ? count++ : count - 1;
+            while (i > 0 && ranksAbove(suggestion, best[i - 1])) {
+                best[i] = best[i - 1];
+                i--;
+            }
+            best[i] = suggestion;
+        }
+
+        private boolean ranksAbove(int a, int b) {
+            return weights[a] > weights[b] || (weights[a] == weights[b] && a < b);
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(best, count);
+        }
+    }
+
+    static class Builder {
+        private final ByteArrayOutputStream texts = new ByteArrayOutputStream();
+        private final IntList textOffsets = new IntList();
+        private final LongList idMost = new LongList();
+        private final LongList idLeast = new LongList();
+        private final FloatList weights = new FloatList();
+        private final ByteArrayOutputStream keys = new ByteArrayOutputStream();
+        private final IntList keyOffsets = new IntList();
+        private final IntList keySuggestions = new IntList();
+
+        Builder() {
+            textOffsets.add(0);
+            keyOffsets.add(0);
+        }
+
+        /**
+         * Add a suggestion reachable from each of the given normalized keys.
+         */
+        void add(String text, UUID bookId, float weight, List<String> suggestionKeys) {
+            int suggestion = weights.size();
+            texts.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+            textOffsets.add(texts.size());
+            idMost.add(bookId != null ? bookId.getMostSignificantBits() : 0);
+            idLeast.add(bookId != null ? bookId.getLeastSignificantBits() : 0);
+            weights.add(weight);
+            for (String key : suggestionKeys) {
+                keys.writeBytes(key.getBytes(StandardCharsets.UTF_8));
+                keyOffsets.add(keys.size());
+                keySuggestions.add(suggestion);
+            }
+        }
+
+        SuggestIndex build(int maxResults, int scanLimit) {
+            byte[] packed = keys.toByteArray();
+            int[] offsets = keyOffsets.toArray();
+            Integer[] order = new Integer[keySuggestions.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(packed, offsets[a], offsets[a + 1],
+                    packed, offsets[b], offsets[b + 1]));
+            return new SuggestIndex(this, Arrays.stream(order).mapToInt(Integer::intValue).toArray(),
+                    maxResults, scanLimit);
+        }
+    }
+
+    private static class IntList {
+        private int[] values = new int[1024];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static class LongList {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static class FloatList {
+        private float[] values = new float[1024];
+        private int size;
+
+        void add(float value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        float[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.shelve.bookcatalog.service;
+
+import com.shelve.bookcatalog.entity.Book;
+import com.shelve.bookcatalog.entity.Isbns;
+import com.shelve.bookcatalog.event.BooksChangedEvent;
+import com.shelve.bookcatalog.repository.BookIdentity;
+import com.shelve.bookcatalog.repository.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Shared dedup-and-persist path for books coming from external sources (search backfill,
+ * imports, startup seeding). A batch is deduplicated in memory by hashed keys, resolved
+ * against the database with one set-based query per chunk, and the survivors are inserted
+ * with JDBC batching in a single transaction. Should another writer store one of their ISBNs
+ * in between, the batch is retried one book per transaction and the taken ISBNs are skipped.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookBatchWriter {
+
+    // Keeps IN lists well below driver parameter limits
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+    // Never a real ISBN or lowercased title; keeps IN lists non-empty
+    private static final String NO_MATCH = "\u0000";
+
+    private final BookRepository bookRepository;
+    private final GenreCatalog genreCatalog;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Persist the candidates that are neither duplicated within the batch nor already stored,
+     * matching on ISBN or on normalized title and author.
+     *
+     * @return the newly saved books, in candidate order
+     */
+    public List<Book> saveNewBooks(Collection<Book> candidates) {
+        List<Book> unique = dedupInMemory(candidates);
+        if (unique.isEmpty()) {
+            return List.of();
+        }
+
+        List<Book> fresh = new ArrayList<>(unique.size());
+        for (int from = 0; from < unique.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Book> chunk = unique.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, unique.size()));
+            fresh.addAll(removeExisting(chunk));
+        }
+        if (fresh.isEmpty()) {
+            return List.of();
+        }
+
+        fresh.forEach(genreCatalog::assign);
+        List<Book> saved;
+        try {
+            saved = transactionTemplate.execute(status -> bookRepository.saveAllAndFlush(fresh));
+        } catch (DataIntegrityViolationException e) {
+            if (!Isbns.isDuplicateIsbn(e)) {
+                throw e;
+            }
+            saved = saveEach(fresh);
+        }
+        if (saved.isEmpty()) {
+            return List.of();
+        }
+        eventPublisher.publishEvent(BooksChangedEvent.created(saved));
+        log.debug("Saved {} of {} candidate books", saved.size(), candidates.size());
+        return saved;
+    }
+
+    // The batch was rolled back: save each book on its own, skipping those whose ISBN is taken
+    private List<Book> saveEach(List<Book> books) {
+        List<Book> saved = new ArrayList<>(books.size());
+        for (Book book : books) {
+            // Ids handed out to the rolled back inserts would make the save a merge
+            book.setId(null);
+            try {
+                saved.add(transactionTemplate.execute(status -> bookRepository.saveAndFlush(book)));
+            } catch (DataIntegrityViolationException e) {
+                if (!Isbns.isDuplicateIsbn(e)) {
+                    throw e;
+                }
+                log.debug("Skipping '{}', ISBN {} was stored concurrently", book.getTitle(), book.getIsbn());
+            }
+        }
+        return saved;
+    }
+
+    private List<Book> dedupInMemory(Collection<Book> candidates) {
+        Set<String> seenIsbns = new HashSet<>();
+        Set<String> seenKeys = new HashSet<>();
+        List<Book> unique = new ArrayList<>();
+
+        for (Book book : candidates) {
+            if (book.getTitle() == null) {
+                continue;
+            }
+            String isbn = canonicalizeIsbn(book);
+            if (isbn != null && !seenIsbns.add(isbn)) {
+                continue;
+            }
+            if (!seenKeys.add(dedupKey(book.getTitle(), book.getAuthor()))) {
+                continue;
+            }
+            unique.add(book);
+        }
+        return unique;
+    }
+
+    // Providers send malformed ISBNs now and then; the book is still worth importing without one
+    private String canonicalizeIsbn(Book book) {
+        String raw = book.getIsbn();
+        String isbn = normalizeIsbn(raw);
+        if (isbn == null && raw != null && !raw.isBlank()) {
+            log.debug("Dropping invalid ISBN '{}' of imported book '{}'", raw, book.getTitle());
+            meterRegistry.counter("book.import.invalid.isbn", "source", "external").increment();
+        }
+        book.setIsbn(isbn);
+        return isbn;
+    }
+
+    private List<Book> removeExisting(List<Book> chunk) {
+        Set<String> isbns = new HashSet<>();
+        Set<String> titles = new HashSet<>();
+        for (Book book : chunk) {
+            String isbn = normalizeIsbn(book.getIsbn());
+            if (isbn != null) {
+                isbns.add(isbn);
+            }
+            titles.add(book.getTitle().toLowerCase());
+        }
+        if (isbns.isEmpty()) {
+            isbns.add(NO_MATCH);
+        }
+
+        Set<String> existingIsbns = new HashSet<>();
+        Set<String> existingKeys = new HashSet<>();
+        for (BookIdentity existing : bookRepository.findDuplicateCandidates(isbns, titles)) {
+            String isbn = normalizeIsbn(existing.getIsbn());
+            if (isbn != null) {
+                existingIsbns.add(isbn);
+            }
+            existingKeys.add(dedupKey(existing.getTitle(), existing.getAuthor()));
+        }
+
+        List<Book> fresh = new ArrayList<>();
+        for (Book book : chunk) {
+            String isbn = normalizeIsbn(book.getIsbn());
+            if (isbn != null && existingIsbns.contains(isbn)) {
+                continue;
+            }
+            if (existingKeys.contains(dedupKey(book.getTitle(), book.getAuthor()))) {
+                continue;
+            }
+            fresh.add(book);
+        }
+        return fresh;
+    }
+
+    /**
+     * Title/author identity used for duplicate detection: lowercase alphanumerics only.
+     */
+    public static String dedupKey(String title, String author) {
+        String t = title != null ? title.toLowerCase().replaceAll("[^a-z0-9]", "") : "";
+        String a = author != null ? author.toLowerCase().replaceAll("[^a-z0-9]", "") : "";
+        return t + "|" + a;
+    }
+
+    /**
+     * The canonical ISBN-13 stored for a book, or null if the value is not a valid ISBN.
+     */
+    public static String normalizeIsbn(String isbn) {
+        return Isbns.toIsbn13(isbn);
+    }
+}
@@ -0,0 +1,100 @@
+package com.shelve.bookcatalog.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shelve.bookcatalog.exception.InvalidCursorException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Turns keyset scroll positions into opaque, URL-safe cursors and back. Key values are
+ * re-typed from the book property they belong to, so a decoded cursor binds to the
+ * seek predicate with the right parameter types.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookCursorCodec {
+
+    // The Bayesian leaderboard score; not a column, so only top-rated cursors carry it
+    public static final String SCORE = "score";
+
+    // Non-null columns only: keyset predicates cannot seek past NULLs
+    private static final Map<String, Class<?>> KEY_TYPES = Map.of(
+            "id", UUID.class,
+            "title", String.class,
+            "author", String.class,
+            "averageRating", Double.class,
+            "ratingsCount", Integer.class,
+            "createdAt", LocalDateTime.class,
+            SCORE, Double.class);
+
+    private final ObjectMapper objectMapper;
+
+    public static boolean isScrollable(String property) {
+        return KEY_TYPES.containsKey(property) && !SCORE.equals(property);
+    }
+
+    public String encode(ScrollPosition position) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        ((KeysetScrollPosition) position).getKeys().forEach((key, value) -> keys.put(key, String.valueOf(value)));
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(keys));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+    }
+
+    /**
+     * @return the position after the cursor, or the first page if there is no cursor
+     */
+    public ScrollPosition decode(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, String> encoded;
+        try {
+            encoded = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), new TypeReference<>() {});
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Sort.Order order : sort) {
+            String value = encoded.get(order.getProperty());
+            if (value == null) {
+                throw new InvalidCursorException("Cursor does not match the requested sort order");
+            }
+            keys.put(order.getProperty(), parse(order.getProperty(), value));
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    private Object parse(String property, String value) {
+        try {
+            Class<?> type = KEY_TYPES.get(property);
+            if (type == UUID.class) {
+                return UUID.fromString(value);
+            } else if (type == Double.class) {
+                return Double.valueOf(value);
+            } else if (type == Integer.class) {
+                return Integer.valueOf(value);
+            } else if (type == LocalDateTime.class) {
+                return LocalDateTime.parse(value);
+            }
+            return value;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+}
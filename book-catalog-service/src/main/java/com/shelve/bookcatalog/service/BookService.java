@@ -1,24 +1,65 @@
 package com.shelve.bookcatalog.service;
 
+import com.shelve.bookcatalog.cache.BookJsonCache;
+import com.shelve.bookcatalog.cache.CachedJson;
 import com.shelve.bookcatalog.dto.BookResponse;
 import com.shelve.bookcatalog.dto.CreateBookRequest;
+import com.shelve.bookcatalog.dto.CursorPagedResponse;
+import com.shelve.bookcatalog.dto.FacetValueResponse;
+import com.shelve.bookcatalog.dto.GenreResponse;
 import com.shelve.bookcatalog.dto.PagedResponse;
 import com.shelve.bookcatalog.entity.Book;
+import com.shelve.bookcatalog.entity.Genre;
+import com.shelve.bookcatalog.entity.IsbnAlias;
+import com.shelve.bookcatalog.entity.Isbns;
+import com.shelve.bookcatalog.facet.BookFacet;
+import com.shelve.bookcatalog.facet.BookFacetIndex;
+import com.shelve.bookcatalog.event.BooksChangedEvent;
 import com.shelve.bookcatalog.exception.BookNotFoundException;
+import com.shelve.bookcatalog.exception.FacetsUnavailableException;
+import com.shelve.bookcatalog.exception.InvalidCursorException;
+import com.shelve.bookcatalog.exception.InvalidIsbnException;
+import com.shelve.bookcatalog.leaderboard.BookLeaderboards;
 import com.shelve.bookcatalog.repository.BookRepository;
+import com.shelve.bookcatalog.repository.BookSummary;
+import com.shelve.bookcatalog.repository.IsbnAliasRepository;
+import com.shelve.bookcatalog.search.BookQuery;
+import com.shelve.bookcatalog.search.BookSearchIndex;
+import com.shelve.bookcatalog.search.SpellingCorrector;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,7 +68,47 @@ import java.util.stream.Collectors;
 public class BookService {
 
     private final BookRepository bookRepository;
+    private final IsbnAliasRepository isbnAliasRepository;
+    private final SearchEnrichmentService searchEnrichmentService;
     private final ExternalBookService externalBookService;
+    private final BookBatchWriter bookBatchWriter;
+    private final BookSearchIndex bookSearchIndex;
+    private final SpellingCorrector spellingCorrector;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final BookCursorCodec bookCursorCodec;
+    private final BookJsonCache bookJsonCache;
+    private final GenreCatalog genreCatalog;
+    private final BookLeaderboards bookLeaderboards;
+    private final BookFacetIndex bookFacetIndex;
+    @Qualifier("bookLookupExecutor")
+    private final TaskExecutor bookLookupExecutor;
+
+    // "async" returns local results immediately and backfills from external APIs in the background;
+    // "sync" waits for the external APIs before answering
+    @Value("${book-search.external.mode:async}")
+    private String externalMode;
+
+    // Ids per query of a bulk lookup; larger lookups run their chunks in parallel
+    @Value("${book-batch.chunk-size:500}")
+    private int lookupChunkSize;
+
+    // Search hits a faceted search filters and counts over
+    @Value("${book-facets.max-search-hits:5000}")
+    private int maxFacetedHits;
+
+    // Concurrent identical searches share one computation (index/DB query and external fallback)
+    private SingleFlight<String, PagedResponse<BookResponse>> searchFlight;
+    // Concurrent scans of an ISBN missing from the catalog share one external lookup (or import)
+    private SingleFlight<String, Book> isbnLookupFlight;
+    private SingleFlight<String, Book> isbnFlight;
+
+    @PostConstruct
+    void init() {
+        searchFlight = new SingleFlight<>("book-search", meterRegistry);
+        isbnLookupFlight = new SingleFlight<>("book-isbn-lookup", meterRegistry);
+        isbnFlight = new SingleFlight<>("book-isbn", meterRegistry);
+    }
 
     public PagedResponse<BookResponse> getAllBooks(int page, int size, String sortBy, String sortDir) {
         Sort sort = sortDir.equalsIgnoreCase("desc") 
@@ -35,9 +116,23 @@ public class BookService {
                 : Sort.by(sortBy).ascending();
         
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<Book> bookPage = bookRepository.findAll(pageable);
+        Page<BookSummary> bookPage = bookRepository.findSummariesBy(pageable);
         
-        return buildPagedResponse(bookPage);
+        return buildPagedResponse(bookPage.map(this::mapToSummaryResponse));
+    }
+
+    /**
+     * Cursor-paged variant of {@link #getAllBooks}: seeks on (sortBy, id), so every page costs the same.
+     */
+    public CursorPagedResponse<BookResponse> scrollBooks(String sortBy, String sortDir, int size,
+                                                         String cursor, boolean includeTotal) {
+        if (!BookCursorCodec.isScrollable(sortBy)) {
+            throw new InvalidCursorException("Cursor paging is not supported for sortBy=" + sortBy);
+        }
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = keysetSort(direction, sortBy);
+        Window<Book> window = bookRepository.findAllBy(bookCursorCodec.decode(cursor, sort), sort, limit(size));
+        return buildCursorResponse(window, includeTotal ? bookRepository.count() : null);
     }
 
     public BookResponse getBookById(String id) {
@@ -48,96 +143,363 @@ public class BookService {
 
     public List<BookResponse> getBooksByIds(List<String> ids) {
         List<UUID> uuids = ids.stream().map(UUID::fromString).collect(Collectors.toList());
-        return bookRepository.findByIdIn(uuids).stream()
+        return bookRepository.findAllByIdCached(uuids).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * {@link #getBookById} as ready-to-write JSON, served from {@link BookJsonCache} for hot books.
+     */
+    public CachedJson getBookJson(String id) {
+        Book book = bookRepository.findById(UUID.fromString(id))
+                .orElseThrow(() -> new BookNotFoundException("Book not found with id: " + id));
+        return bookJsonCache.get(book, this::mapToResponse);
+    }
+
+    /**
+     * The book with this ISBN (10 or 13 digits, any hyphenation), local first: the catalog's book
+     * stored under it or aliased to it by an earlier import; only on a miss Google Books' answer,
+     * served through the external response cache. Read-only: a book from Google is not saved and
+     * has no id; {@link #importBookByIsbn} saves it.
+     *
+     * @throws InvalidIsbnException if the value is not a valid ISBN
+     * @throws BookNotFoundException if neither the catalog nor Google Books has it
+     */
+    public Book getBookByIsbn(String isbn) {
+        String canonical = canonicalIsbn(isbn);
+        Optional<Book> local = findLocalByIsbn(canonical);
+        if (local.isPresent()) {
+            meterRegistry.counter("book.isbn.lookups", "source", "catalog").increment();
+            return local.get();
+        }
+        Book book = isbnLookupFlight.execute(canonical, () -> externalBookService.getBookByIsbn(canonical).orElse(null));
+        if (book == null) {
+            meterRegistry.counter("book.isbn.lookups", "source", "missing").increment();
+            throw new BookNotFoundException("Book not found with ISBN: " + isbn);
+        }
+        meterRegistry.counter("book.isbn.lookups", "source", "external").increment();
+        return book;
+    }
+
+    /**
+     * {@link #getBookByIsbn} as ready-to-write JSON, served from {@link BookJsonCache} for hot books.
+     * A book from Google Books isn't stored, so its JSON is neither cached here nor tagged.
+     */
+    public CachedJson getBookJsonByIsbn(String isbn) {
+        Book book = getBookByIsbn(isbn);
+        return book.getId() != null ? bookJsonCache.get(book, this::mapToResponse)
+                : bookJsonCache.untagged(mapToResponse(book));
+    }
+
+    /**
+     * Like {@link #getBookByIsbn}, but an ISBN the catalog doesn't know is looked up in Google Books
+     * and the book found is saved, or aliased to the stored book it duplicates, so the next
+     * lookup is local.
+     *
+     * @throws InvalidIsbnException if the value is not a valid ISBN
+     * @throws BookNotFoundException if neither the catalog nor Google Books has it
+     */
+    public Book importBookByIsbn(String isbn) {
+        String canonical = canonicalIsbn(isbn);
+        Optional<Book> local = findLocalByIsbn(canonical);
+        if (local.isPresent()) {
+            meterRegistry.counter("book.isbn.lookups", "source", "catalog").increment();
+            return local.get();
+        }
+        Book book = isbnFlight.execute(canonical, () -> fetchByIsbn(canonical));
+        if (book == null) {
+            meterRegistry.counter("book.isbn.lookups", "source", "missing").increment();
+            throw new BookNotFoundException("Book not found with ISBN: " + isbn);
+        }
+        meterRegistry.counter("book.isbn.lookups", "source", "external").increment();
+        return book;
+    }
+
+    private String canonicalIsbn(String isbn) {
+        String canonical = Isbns.toIsbn13(isbn);
+        if (canonical == null) {
+            throw new InvalidIsbnException("Not a valid ISBN-10 or ISBN-13: " + isbn);
+        }
+        return canonical;
+    }
+
+    // Both probes are primary/unique key lookups
+    private Optional<Book> findLocalByIsbn(String canonical) {
+        return bookRepository.findByIsbn(canonical)
+                .or(() -> isbnAliasRepository.findById(canonical)
+                        .flatMap(alias -> bookRepository.findById(alias.getBookId())));
+    }
+
+    // Google Books result, saved; or the stored book it duplicates. Null if Google has nothing.
+    private Book fetchByIsbn(String isbn) {
+        Optional<Book> external = externalBookService.getBookByIsbn(isbn);
+        if (external.isEmpty()) {
+            return null;
+        }
+        Book found = external.get();
+        List<Book> saved = bookBatchWriter.saveNewBooks(List.of(found));
+        // Already stored: under another form of the ISBN Google returned, or under its title and author
+        Optional<Book> book = !saved.isEmpty() ? Optional.of(saved.get(0))
+                : Optional.ofNullable(Isbns.toIsbn13(found.getIsbn()))
+                        .flatMap(bookRepository::findByIsbn)
+                        .or(() -> bookRepository.findFirstByTitleIgnoreCaseAndAuthorIgnoreCase(found.getTitle(), found.getAuthor()));
+        book.filter(stored -> !isbn.equals(stored.getIsbn())).ifPresent(stored -> addIsbnAlias(isbn, stored));
+        return book.orElse(null);
+    }
+
+    // Google answered with another edition, or one the catalog already has: remember where the scan led
+    private void addIsbnAlias(String isbn, Book book) {
+        try {
+            isbnAliasRepository.save(IsbnAlias.builder().isbn(isbn).bookId(book.getId()).build());
+        } catch (DataIntegrityViolationException e) {
+            // Another instance aliased it first
+            log.debug("ISBN {} was aliased concurrently", isbn);
+        }
+    }
+
+    /**
+     * {@link #getBooksByIds} as a JSON array concatenated from each book's cached bytes.
+     */
+    public CachedJson getBooksJson(List<String> ids) {
+        List<UUID> uuids = ids.stream().map(UUID::fromString).collect(Collectors.toList());
+        return bookJsonCache.getAll(bookRepository.findAllByIdCached(uuids), this::mapToResponse);
+    }
+
+    /**
+     * Bulk lookup for large id sets: one entry per requested id, in request order, with not-found
+     * entries for unknown ids. Distinct ids are loaded in chunks of {@code book-batch.chunk-size},
+     * in parallel when there is more than one chunk.
+     */
+    public byte[] lookupBooksJson(List<String> ids) {
+        Set<UUID> distinct = new LinkedHashSet<>();
+        for (String id : ids) {
+            try {
+                distinct.add(UUID.fromString(id));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                // Reported as not found
+            }
+        }
+        return bookJsonCache.getLookup(ids, loadInChunks(new ArrayList<>(distinct)), this::mapToResponse);
+    }
+
+    private Map<UUID, Book> loadInChunks(List<UUID> ids) {
+        List<CompletableFuture<List<Book>>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += lookupChunkSize) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + lookupChunkSize, ids.size()));
+            chunks.add(ids.size() <= lookupChunkSize
+                    ? CompletableFuture.completedFuture(bookRepository.findAllByIdCached(chunk))
+                    : CompletableFuture.supplyAsync(() -> bookRepository.findAllByIdCached(chunk), bookLookupExecutor));
+        }
+        Map<UUID, Book> books = new HashMap<>();
+        for (CompletableFuture<List<Book>> chunk : chunks) {
+            chunk.join().forEach(book -> books.put(book.getId(), book));
+        }
+        return books;
+    }
+
+    /**
+     * The book's current ETag if it can be had without loading the book, for cheap revalidation.
+     */
+    public Optional<String> getBookEtag(String id) {
+        return bookJsonCache.peekEtag(UUID.fromString(id));
+    }
+
+    public Optional<String> getBooksEtag(List<String> ids) {
+        return bookJsonCache.peekBatchEtag(ids.stream().map(UUID::fromString).collect(Collectors.toList()));
+    }
+
     public PagedResponse<BookResponse> searchBooks(String query, int page, int size) {
+        String key = query.trim().toLowerCase().replaceAll("\\s+", " ") + "|" + page + "|" + size;
+        return searchFlight.execute(key, () -> doSearchBooks(query, page, size));
+    }
+
+    private PagedResponse<BookResponse> doSearchBooks(String query, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Book> bookPage = bookRepository.search(query, pageable);
+
+        // Field-qualified queries (author:, isbn:, year: ...) are answered from the catalog alone:
+        // neither the spelling corrector nor the external APIs understand the qualifiers
+        BookQuery bookQuery = BookQuery.parse(query);
+        if (bookQuery.isQualified()) {
+            meterRegistry.counter("book.search.qualified").increment();
+            return buildPagedResponse(searchQualified(bookQuery, pageable).map(this::mapToSummaryResponse));
+        }
+
+        Page<BookSummary> bookPage = searchLocal(query, pageable);
+
+        // A misspelled query: retry locally with the catalog's own spelling before calling out
+        String correctedQuery = null;
+        if (bookPage.getTotalElements() < size) {
+            Optional<String> corrected = spellingCorrector.correct(query);
+            if (corrected.isPresent()) {
+                Page<BookSummary> correctedPage = searchLocal(corrected.get(), pageable);
+                if (correctedPage.getTotalElements() > bookPage.getTotalElements()) {
+                    log.info("Search for '{}' corrected to '{}'", query, corrected.get());
+                    meterRegistry.counter("book.search.corrected").increment();
+                    query = corrected.get();
+                    correctedQuery = query;
+                    bookPage = correctedPage;
+                }
+            }
+        }
         
         // If local results are insufficient, search external APIs
         if (bookPage.getTotalElements() < size && page == 0) {
             log.info("Local search returned {} results, querying external APIs for: {}", 
                      bookPage.getTotalElements(), query);
+
+            if (!"sync".equalsIgnoreCase(externalMode)) {
+                // Answer from the local catalog now; the backfill shows up on a re-query
+                PagedResponse<BookResponse> response = buildPagedResponse(bookPage.map(this::mapToSummaryResponse));
+                response.setEnrichmentToken(searchEnrichmentService.submit(query, size * 2));
+                response.setCorrectedQuery(correctedQuery);
+                return response;
+            }
+
             try {
-                List<Book> externalBooks = externalBookService.searchExternalApis(query, size * 2);
-                
-                // Save new books to database and combine results
-                List<Book> combined = new ArrayList<>(bookPage.getContent());
-                for (Book book : externalBooks) {
-                    // Skip if already in local results or database
-                    boolean isDuplicate = combined.stream()
-                        .anyMatch(b -> isSameBook(b, book));
-                    
-                    if (!isDuplicate) {
-                        // Check if exists in database
-                        if (book.getIsbn() != null && bookRepository.existsByIsbn(book.getIsbn())) {
-                            continue;
-                        }
-                        if (bookRepository.existsByTitleAndAuthor(book.getTitle(), book.getAuthor())) {
-                            continue;
-                        }
-                        
-                        // Save to database
-                        Book saved = bookRepository.save(book);
-                        combined.add(saved);
-                        
-                        if (combined.size() >= size) break;
-                    }
-                }
+                List<Book> saved = searchEnrichmentService.fetchAndPersist(query, size * 2);
                 
                 // Return combined results
-                List<Book> pageContent = combined.stream().limit(size).toList();
-                Page<Book> combinedPage = new PageImpl<>(pageContent, pageable, combined.size());
-                return buildPagedResponse(combinedPage);
+                List<BookResponse> combined = new ArrayList<>(bookPage.map(this::mapToSummaryResponse).getContent());
+                saved.stream().map(this::mapToListResponse).forEach(combined::add);
+                List<BookResponse> pageContent = combined.stream().limit(size).toList();
+                PagedResponse<BookResponse> response = buildPagedResponse(new PageImpl<>(pageContent, pageable, combined.size()));
+                response.setCorrectedQuery(correctedQuery);
+                return response;
             } catch (Exception e) {
                 log.warn("External API search failed: {}", e.getMessage());
                 // Fall back to local results only
             }
         }
         
-        return buildPagedResponse(bookPage);
+        PagedResponse<BookResponse> response = buildPagedResponse(bookPage.map(this::mapToSummaryResponse));
+        response.setCorrectedQuery(correctedQuery);
+        return response;
+    }
+
+    /**
+     * Ranked search from the full-text index, falling back to the LIKE query
+     * while the index is still being built.
+     */
+    private Page<BookSummary> searchLocal(String query, Pageable pageable) {
+        return bookSearchIndex.search(query, pageable.getPageNumber(), pageable.getPageSize())
+                .<Page<BookSummary>>map(hits -> new PageImpl<>(findSummariesInOrder(hits.getIds()),
+                        pageable, hits.getTotalHits()))
+                .orElseGet(() -> bookRepository.searchSummaries(query, pageable));
     }
     
-    private boolean isSameBook(Book a, Book b) {
-        // Check by ISBN first
-        if (a.getIsbn() != null && b.getIsbn() != null) {
-            return a.getIsbn().equals(b.getIsbn());
+    private Page<BookSummary> searchQualified(BookQuery query, Pageable pageable) {
+        return bookSearchIndex.search(query, pageable.getPageNumber(), pageable.getPageSize())
+                .<Page<BookSummary>>map(hits -> new PageImpl<>(findSummariesInOrder(hits.getIds()),
+                        pageable, hits.getTotalHits()))
+                .orElseGet(() -> toSummaryPage(bookRepository.findIdsMatching(query, pageable)));
+    }
+
+    /**
+     * Search (or, without a query, browse newest first) narrowed by facet values, with the
+     * count of every facet value among the matches.
+     */
+    public PagedResponse<BookResponse> searchFaceted(String query, Map<BookFacet, List<String>> filters,
+                                                     int page, int size) {
+        List<UUID> rankedIds = null;
+        if (query != null && !query.isBlank()) {
+            rankedIds = bookSearchIndex.search(query, 0, maxFacetedHits)
+                    .map(BookSearchIndex.SearchHits::getIds)
+                    .orElseGet(() -> bookRepository.searchSummaries(query, PageRequest.of(0, maxFacetedHits))
+                            .map(BookSummary::getId)
+                            .getContent());
         }
-        // Fall back to title+author comparison
-        String titleA = a.getTitle() != null ? a.getTitle().toLowerCase() : "";
-        String titleB = b.getTitle() != null ? b.getTitle().toLowerCase() : "";
-        String authorA = a.getAuthor() != null ? a.getAuthor().toLowerCase() : "";
-        String authorB = b.getAuthor() != null ? b.getAuthor().toLowerCase() : "";
-        return titleA.equals(titleB) && authorA.equals(authorB);
+
+        Map<BookFacet, Set<String>> selected = new EnumMap<>(BookFacet.class);
+        filters.forEach((facet, values) -> {
+            Set<String> resolved = new LinkedHashSet<>();
+            for (String value : values) {
+                resolved.add(switch (facet) {
+                    case GENRE -> genreCatalog.find(value).map(Genre::getName).orElse(value);
+                    case LANGUAGE -> value.trim().toLowerCase();
+                    default -> value.trim();
+                });
+            }
+            selected.put(facet, resolved);
+        });
+
+        BookFacetIndex.FacetedHits hits = bookFacetIndex.filter(rankedIds, selected, page, size)
+                .orElseThrow(() -> new FacetsUnavailableException("Facets are still being built, retry shortly"));
+
+        Pageable pageable = PageRequest.of(page, size);
+        Page<BookSummary> bookPage = new PageImpl<>(findSummariesInOrder(hits.getIds()), pageable, hits.getTotalHits());
+        PagedResponse<BookResponse> response = buildPagedResponse(bookPage.map(this::mapToSummaryResponse));
+        Map<String, List<FacetValueResponse>> facets = new LinkedHashMap<>();
+        hits.getFacets().forEach((facet, counts) -> facets.put(facet.getParam(), counts.stream()
+                .map(count -> new FacetValueResponse(count.getValue(), count.getCount()))
+                .collect(Collectors.toList())));
+        response.setFacets(facets);
+        return response;
     }
 
     public PagedResponse<BookResponse> getBooksByGenre(String genre, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("averageRating").descending());
-        Page<Book> bookPage = bookRepository.findByGenre(genre, pageable);
-        return buildPagedResponse(bookPage);
+        Pageable pageable = PageRequest.of(page, size);
+        Page<BookSummary> bookPage = genreCatalog.find(genre)
+                .map(g -> toSummaryPage(bookLeaderboards.page(g.getId(), pageable)))
+                .orElseGet(() -> Page.empty(pageable));
+        return buildPagedResponse(bookPage.map(this::mapToSummaryResponse));
+    }
+
+    /**
+     * Cursor-paged variant of {@link #getBooksByGenre}, in the same leaderboard order.
+     */
+    public CursorPagedResponse<BookResponse> scrollBooksByGenre(String genre, int size, String cursor,
+                                                                boolean includeTotal) {
+        BookLeaderboards.Position after = decodeRankCursor(cursor);
+        Optional<Genre> match = genreCatalog.find(genre);
+        if (match.isEmpty()) {
+            return buildRankCursorResponse(new BookLeaderboards.Scroll(List.of(), false), includeTotal ? 0L : null);
+        }
+        Integer genreId = match.get().getId();
+        BookLeaderboards.Scroll scroll = bookLeaderboards.scroll(genreId, after, Math.max(1, size));
+        return buildRankCursorResponse(scroll, includeTotal ? genreCatalog.getBookCount(genreId) : null);
     }
 
     public List<String> getAllGenres() {
-        return bookRepository.findAllGenres();
+        return genreCatalog.getGenreNames();
+    }
+
+    public List<GenreResponse> getGenres() {
+        return genreCatalog.getGenres();
     }
 
     public PagedResponse<BookResponse> getTopRatedBooks(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Book> bookPage = bookRepository.findByOrderByAverageRatingDesc(pageable);
-        return buildPagedResponse(bookPage);
+        Page<BookSummary> bookPage = toSummaryPage(bookLeaderboards.page(null, pageable));
+        return buildPagedResponse(bookPage.map(this::mapToSummaryResponse));
     }
 
     public PagedResponse<BookResponse> getRecentlyAddedBooks(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Book> bookPage = bookRepository.findByOrderByCreatedAtDesc(pageable);
-        return buildPagedResponse(bookPage);
+        Page<BookSummary> bookPage = bookRepository.findSummariesByOrderByCreatedAtDesc(pageable);
+        return buildPagedResponse(bookPage.map(this::mapToSummaryResponse));
+    }
+
+    /**
+     * Cursor-paged variant of {@link #getTopRatedBooks}, in the same leaderboard order: the cursor
+     * holds the last book's score and id, so pages seek instead of counting past earlier ones.
+     */
+    public CursorPagedResponse<BookResponse> scrollTopRatedBooks(int size, String cursor, boolean includeTotal) {
+        BookLeaderboards.Scroll scroll = bookLeaderboards.scroll(null, decodeRankCursor(cursor), Math.max(1, size));
+        return buildRankCursorResponse(scroll, includeTotal ? bookRepository.count() : null);
+    }
+
+    public CursorPagedResponse<BookResponse> scrollRecentlyAddedBooks(int size, String cursor, boolean includeTotal) {
+        Sort sort = keysetSort(Sort.Direction.DESC, "createdAt");
+        Window<Book> window = bookRepository.findAllBy(bookCursorCodec.decode(cursor, sort), sort, limit(size));
+        return buildCursorResponse(window, includeTotal ? bookRepository.count() : null);
     }
 
     @Transactional
     public BookResponse createBook(CreateBookRequest request) {
+        if (request.getIsbn() != null && !request.getIsbn().isBlank() && Isbns.toIsbn13(request.getIsbn()) == null) {
+            throw new InvalidIsbnException("Not a valid ISBN-10 or ISBN-13: " + request.getIsbn());
+        }
         Book book = Book.builder()
                 .title(request.getTitle())
                 .author(request.getAuthor())
@@ -150,24 +512,29 @@ public class BookService {
                 .publisher(request.getPublisher())
                 .language(request.getLanguage())
                 .build();
+        genreCatalog.assign(book);
         
         book = bookRepository.save(book);
+        eventPublisher.publishEvent(BooksChangedEvent.created(book));
         return mapToResponse(book);
     }
 
-    @Transactional
-    public void updateRating(String bookId, double newAverageRating, int newRatingsCount) {
-        Book book = bookRepository.findById(UUID.fromString(bookId))
-                .orElseThrow(() -> new BookNotFoundException("Book not found with id: " + bookId));
-        
-        book.setAverageRating(newAverageRating);
-        book.setRatingsCount(newRatingsCount);
-        bookRepository.save(book);
+    private List<BookSummary> findSummariesInOrder(List<UUID> ids) {
+        Map<UUID, BookSummary> booksById = bookRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(BookSummary::getId, Function.identity()));
+        return ids.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private Page<BookSummary> toSummaryPage(Page<UUID> ids) {
+        return new PageImpl<>(findSummariesInOrder(ids.getContent()), ids.getPageable(), ids.getTotalElements());
     }
 
     private BookResponse mapToResponse(Book book) {
         return BookResponse.builder()
-                .id(book.getId().toString())
+                .id(book.getId() != null ? book.getId().toString() : null)
                 .title(book.getTitle())
                 .author(book.getAuthor())
                 .isbn(book.getIsbn())
@@ -183,13 +550,33 @@ public class BookService {
                 .build();
     }
 
-    private PagedResponse<BookResponse> buildPagedResponse(Page<Book> bookPage) {
-        List<BookResponse> content = bookPage.getContent().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    // List views never carry the description, whichever way the row was loaded
+    private BookResponse mapToListResponse(Book book) {
+        BookResponse response = mapToResponse(book);
+        response.setDescription(null);
+        return response;
+    }
 
+    private BookResponse mapToSummaryResponse(BookSummary book) {
+        return BookResponse.builder()
+                .id(book.getId().toString())
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .isbn(book.getIsbn())
+                .coverUrl(book.getCoverUrl())
+                .genre(book.getGenre())
+                .publishedDate(book.getPublishedDate())
+                .pageCount(book.getPageCount())
+                .publisher(book.getPublisher())
+                .language(book.getLanguage())
+                .averageRating(book.getAverageRating())
+                .ratingsCount(book.getRatingsCount())
+                .build();
+    }
+
+    private PagedResponse<BookResponse> buildPagedResponse(Page<BookResponse> bookPage) {
         return PagedResponse.<BookResponse>builder()
-                .content(content)
+                .content(bookPage.getContent())
                 .page(bookPage.getNumber())
                 .size(bookPage.getSize())
                 .totalElements(bookPage.getTotalElements())
@@ -197,4 +584,67 @@ public class BookService {
                 .last(bookPage.isLast())
                 .build();
     }
+
+    // The id tiebreaker makes the order total, which keyset seeking requires
+    private Sort keysetSort(Sort.Direction direction, String property) {
+        return "id".equals(property)
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+
+    private Limit limit(int size) {
+        return Limit.of(Math.max(1, size));
+    }
+
+    private BookLeaderboards.Position decodeRankCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        Sort sort = Sort.by(BookCursorCodec.SCORE, "id");
+        Map<String, Object> keys = ((KeysetScrollPosition) bookCursorCodec.decode(cursor, sort)).getKeys();
+        return new BookLeaderboards.Position((Double) keys.get(BookCursorCodec.SCORE), (UUID) keys.get("id"));
+    }
+
+    private CursorPagedResponse<BookResponse> buildRankCursorResponse(BookLeaderboards.Scroll scroll,
+                                                                      Long totalElements) {
+        List<BookLeaderboards.Position> books = scroll.books();
+        List<BookResponse> content = findSummariesInOrder(books.stream()
+                .map(BookLeaderboards.Position::id)
+                .collect(Collectors.toList())).stream()
+                .map(this::mapToSummaryResponse)
+                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (scroll.hasNext() && !books.isEmpty()) {
+            BookLeaderboards.Position last = books.get(books.size() - 1);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put(BookCursorCodec.SCORE, last.score());
+            keys.put("id", last.id());
+            nextCursor = bookCursorCodec.encode(ScrollPosition.forward(keys));
+        }
+
+        return CursorPagedResponse.<BookResponse>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(scroll.hasNext())
+                .nextCursor(nextCursor)
+                .totalElements(totalElements)
+                .build();
+    }
+
+    private CursorPagedResponse<BookResponse> buildCursorResponse(Window<Book> window, Long totalElements) {
+        List<BookResponse> content = window.getContent().stream()
+                .map(this::mapToListResponse)
+                .collect(Collectors.toList());
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? bookCursorCodec.encode(window.positionAt(window.size() - 1))
+                : null;
+
+        return CursorPagedResponse.<BookResponse>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(window.hasNext())
+                .nextCursor(nextCursor)
+                .totalElements(totalElements)
+                .build();
+    }
 }
@@ -2,20 +2,32 @@ package com.shelve.bookcatalog.service;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.shelve.bookcatalog.cache.ExternalResponseCache;
 import com.shelve.bookcatalog.entity.Book;
-import com.shelve.bookcatalog.repository.BookRepository;
+import com.shelve.bookcatalog.entity.Isbns;
+import com.shelve.bookcatalog.ratelimit.ProviderRateLimiter;
+import com.shelve.bookcatalog.ratelimit.RequestPriority;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service for fetching book data from external APIs:
@@ -27,45 +39,92 @@ import java.util.Optional;
 @Slf4j
 public class ExternalBookService {
 
-    private final BookRepository bookRepository;
     private final WebClient.Builder webClientBuilder;
+    private final BookBatchWriter bookBatchWriter;
+    private final MeterRegistry meterRegistry;
+    private final ExternalResponseCache responseCache;
+    private final ProviderRateLimiter rateLimiter;
 
     @Value("${google.books.api.key:}")
     private String googleBooksApiKey;
 
+    // Overall budget for a combined search; providers that have not answered by then are dropped
+    @Value("${book-search.external.deadline:PT3S}")
+    private Duration searchDeadline;
+
     private static final String GOOGLE_BOOKS_API = "https://www.googleapis.com/books/v1/volumes";
     private static final String OPEN_LIBRARY_API = "https://openlibrary.org";
     private static final String OPEN_LIBRARY_COVERS = "https://covers.openlibrary.org";
 
+    public static final List<String> POPULAR_SUBJECTS = List.of(
+        "fiction bestsellers",
+        "science fiction classics",
+        "fantasy novels",
+        "mystery thriller",
+        "romance novels",
+        "historical fiction",
+        "biography",
+        "self-help",
+        "science",
+        "philosophy"
+    );
+
+    static final String PROVIDER_GOOGLE_BOOKS = "google-books";
+    static final String PROVIDER_OPEN_LIBRARY = "open-library";
+
+    private WebClient googleBooksClient;
+    private WebClient openLibraryClient;
+
+    @PostConstruct
+    void initClients() {
+        // Built once and shared; both clients sit on the builder's pooled connector
+        googleBooksClient = webClientBuilder.clone().baseUrl(GOOGLE_BOOKS_API).build();
+        openLibraryClient = webClientBuilder.clone().baseUrl(OPEN_LIBRARY_API).build();
+    }
+
     /**
      * Search for books using Google Books API
      */
     public List<Book> searchGoogleBooks(String query, int maxResults) {
-        log.info("Searching Google Books for: {}", query);
-        
-        WebClient client = webClientBuilder.baseUrl(GOOGLE_BOOKS_API).build();
-        
-        String uri = "?q=" + query + "&maxResults=" + maxResults;
-        if (googleBooksApiKey != null && !googleBooksApiKey.isEmpty()) {
-            uri += "&key=" + googleBooksApiKey;
+        return searchGoogleBooks(query, maxResults, RequestPriority.INTERACTIVE);
+    }
+
+    public List<Book> searchGoogleBooks(String query, int maxResults, RequestPriority priority) {
+        List<Book> books = searchGoogleBooksAsync(query, maxResults, priority).block();
+        return books != null ? books : List.of();
+    }
+
+    public Mono<List<Book>> searchGoogleBooksAsync(String query, int maxResults, RequestPriority priority) {
+        Optional<List<Book>> cached = responseCache.get(PROVIDER_GOOGLE_BOOKS, query, maxResults);
+        if (cached.isPresent()) {
+            return Mono.just(cached.get());
         }
-        
-        GoogleBooksResponse response = client.get()
-            .uri(uri)
+        log.info("Searching Google Books for: {}", query);
+
+        boolean hasKey = googleBooksApiKey != null && !googleBooksApiKey.isEmpty();
+        String uri = hasKey ? "?q={query}&maxResults={max}&key={key}" : "?q={query}&maxResults={max}";
+        Object[] vars = hasKey
+                ? new Object[] {query, maxResults, googleBooksApiKey}
+                : new Object[] {query, maxResults};
+
+        Mono<List<Book>> call = googleBooksClient.get()
+            .uri(uri, vars)
             .retrieve()
             .bodyToMono(GoogleBooksResponse.class)
-            .block();
-        
-        if (response == null || response.getItems() == null) {
-            log.warn("No results from Google Books API");
-            return List.of();
-        }
-        
-        return response.getItems().stream()
-            .map(this::convertGoogleBookToEntity)
-            .filter(Optional::isPresent)
-            .map(Optional::get)
-            .toList();
+            .map(response -> {
+                if (response.getItems() == null) {
+                    log.warn("No results from Google Books API");
+                    return List.<Book>of();
+                }
+                return response.getItems().stream()
+                    .map(this::convertGoogleBookToEntity)
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .toList();
+            })
+            .defaultIfEmpty(List.of());
+        return rateLimited(PROVIDER_GOOGLE_BOOKS, priority, call)
+            .doOnNext(books -> responseCache.put(PROVIDER_GOOGLE_BOOKS, query, maxResults, books));
     }
 
     /**
@@ -82,26 +141,39 @@ public class ExternalBookService {
      * Search Open Library for books
      */
     public List<Book> searchOpenLibrary(String query, int limit) {
+        return searchOpenLibrary(query, limit, RequestPriority.INTERACTIVE);
+    }
+
+    public List<Book> searchOpenLibrary(String query, int limit, RequestPriority priority) {
+        List<Book> books = searchOpenLibraryAsync(query, limit, priority).block();
+        return books != null ? books : List.of();
+    }
+
+    public Mono<List<Book>> searchOpenLibraryAsync(String query, int limit, RequestPriority priority) {
+        Optional<List<Book>> cached = responseCache.get(PROVIDER_OPEN_LIBRARY, query, limit);
+        if (cached.isPresent()) {
+            return Mono.just(cached.get());
+        }
         log.info("Searching Open Library for: {}", query);
-        
-        WebClient client = webClientBuilder.baseUrl(OPEN_LIBRARY_API).build();
-        
-        OpenLibrarySearchResponse response = client.get()
+
+        Mono<List<Book>> call = openLibraryClient.get()
             .uri("/search.json?q={query}&limit={limit}", query, limit)
             .retrieve()
             .bodyToMono(OpenLibrarySearchResponse.class)
-            .block();
-        
-        if (response == null || response.getDocs() == null) {
-            log.warn("No results from Open Library API");
-            return List.of();
-        }
-        
-        return response.getDocs().stream()
-            .map(this::convertOpenLibraryToEntity)
-            .filter(Optional::isPresent)
-            .map(Optional::get)
-            .toList();
+            .map(response -> {
+                if (response.getDocs() == null) {
+                    log.warn("No results from Open Library API");
+                    return List.<Book>of();
+                }
+                return response.getDocs().stream()
+                    .map(this::convertOpenLibraryToEntity)
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .toList();
+            })
+            .defaultIfEmpty(List.of());
+        return rateLimited(PROVIDER_OPEN_LIBRARY, priority, call)
+            .doOnNext(books -> responseCache.put(PROVIDER_OPEN_LIBRARY, query, limit, books));
     }
 
     /**
@@ -119,55 +191,26 @@ public class ExternalBookService {
         return OPEN_LIBRARY_COVERS + "/b/id/" + coverId + "-" + size + ".jpg";
     }
 
+    /**
+     * Fetch (without saving) books from Google Books by subject/category
+     */
+    public List<Book> fetchBySubject(String subject, int count) {
+        return searchGoogleBooks("subject:" + subject, count, RequestPriority.IMPORT);
+    }
+
     /**
      * Import books from Google Books by subject/category
      */
     public int importBooksBySubject(String subject, int count) {
         log.info("Importing {} books for subject: {}", count, subject);
         
-        List<Book> books = searchGoogleBooks("subject:" + subject, count);
-        int imported = 0;
-        
-        for (Book book : books) {
-            if (book.getIsbn() != null && !bookRepository.existsByIsbn(book.getIsbn())) {
-                bookRepository.save(book);
-                imported++;
-            } else if (book.getIsbn() == null && !bookRepository.existsByTitleAndAuthor(book.getTitle(), book.getAuthor())) {
-                bookRepository.save(book);
-                imported++;
-            }
-        }
+        List<Book> books = fetchBySubject(subject, count);
+        int imported = bookBatchWriter.saveNewBooks(books).size();
         
         log.info("Imported {} new books for subject: {}", imported, subject);
         return imported;
     }
 
-    /**
-     * Import popular books from multiple genres
-     */
-    public int importPopularBooks() {
-        String[] subjects = {
-            "fiction bestsellers",
-            "science fiction classics",
-            "fantasy novels",
-            "mystery thriller",
-            "romance novels",
-            "historical fiction",
-            "biography",
-            "self-help",
-            "science",
-            "philosophy"
-        };
-        
-        int totalImported = 0;
-        for (String subject : subjects) {
-            totalImported += importBooksBySubject(subject, 20);
-        }
-        
-        log.info("Total books imported: {}", totalImported);
-        return totalImported;
-    }
-
     private Optional<Book> convertGoogleBookToEntity(GoogleBooksItem item) {
         try {
             GoogleVolumeInfo info = item.getVolumeInfo();
@@ -183,16 +226,17 @@ public class ExternalBookService {
             book.setPublisher(truncate(info.getPublisher(), 490));
             book.setLanguage(truncate(info.getLanguage() != null ? info.getLanguage() : "en", 10));
             
-            // Extract ISBN
+            // Extract ISBN, ISBN-13 preferred
             if (info.getIndustryIdentifiers() != null) {
+                List<String> isbns = new ArrayList<>();
                 for (IndustryIdentifier id : info.getIndustryIdentifiers()) {
                     if ("ISBN_13".equals(id.getType())) {
-                        book.setIsbn(id.getIdentifier());
-                        break;
-                    } else if ("ISBN_10".equals(id.getType()) && book.getIsbn() == null) {
-                        book.setIsbn(id.getIdentifier());
+                        isbns.add(0, id.getIdentifier());
+                    } else if ("ISBN_10".equals(id.getType())) {
+                        isbns.add(id.getIdentifier());
                     }
                 }
+                book.setIsbn(validIsbn(isbns, PROVIDER_GOOGLE_BOOKS));
             }
             
             // Cover image - prefer Google's thumbnail, fallback to Open Library
@@ -238,7 +282,10 @@ public class ExternalBookService {
         }
     }
 
-    private Optional<Book> convertOpenLibraryToEntity(OpenLibraryDoc doc) {
+    /**
+     * Map an Open Library record to a new (unsaved) book; also used by the offline dump loader.
+     */
+    public Optional<Book> convertOpenLibraryToEntity(OpenLibraryDoc doc) {
         try {
             if (doc.getTitle() == null) {
                 return Optional.empty();
@@ -250,7 +297,7 @@ public class ExternalBookService {
             
             // ISBN
             if (doc.getIsbn() != null && !doc.getIsbn().isEmpty()) {
-                book.setIsbn(doc.getIsbn().get(0));
+                book.setIsbn(validIsbn(doc.getIsbn(), PROVIDER_OPEN_LIBRARY));
             }
             
             // Cover
@@ -301,6 +348,24 @@ public class ExternalBookService {
         }
     }
 
+    /**
+     * The first of the provider's ISBNs that is a valid ISBN-10 or ISBN-13, in canonical form. Providers
+     * send malformed ones now and then; the book is still imported, without an ISBN.
+     */
+    private String validIsbn(List<String> isbns, String provider) {
+        for (String isbn : isbns) {
+            String canonical = Isbns.toIsbn13(isbn);
+            if (canonical != null) {
+                return canonical;
+            }
+        }
+        if (isbns.stream().anyMatch(isbn -> isbn != null && !isbn.isBlank())) {
+            log.debug("Dropping invalid ISBNs {} from {}", isbns, provider);
+            meterRegistry.counter("book.import.invalid.isbn", "source", provider).increment();
+        }
+        return null;
+    }
+
     private String truncate(String str, int maxLength) {
         if (str == null) return null;
         return str.length() > maxLength ? str.substring(0, maxLength - 3) + "..." : str;
@@ -313,22 +378,26 @@ public class ExternalBookService {
     public List<Book> searchExternalApis(String query, int limit) {
         log.info("Searching external APIs for: {}", query);
         
-        // Search both APIs in parallel-ish manner
-        List<Book> googleResults = searchGoogleBooks(query, limit);
-        List<Book> openLibraryResults = searchOpenLibrary(query, limit);
+        // Query both APIs concurrently; both timeouts start together, so they act as one overall deadline
+        Tuple2<List<Book>, List<Book>> results = Mono.zip(
+                withDeadline(PROVIDER_GOOGLE_BOOKS, searchGoogleBooksAsync(query, limit, RequestPriority.INTERACTIVE)),
+                withDeadline(PROVIDER_OPEN_LIBRARY, searchOpenLibraryAsync(query, limit, RequestPriority.INTERACTIVE)))
+            .block();
+        List<Book> googleResults = results.getT1();
+        List<Book> openLibraryResults = results.getT2();
         
         // Combine results, preferring Google (better covers) but supplementing with Open Library
-        java.util.Map<String, Book> combined = new java.util.LinkedHashMap<>();
+        Map<String, Book> combined = new LinkedHashMap<>();
         
         // Add Google results first
         for (Book book : googleResults) {
-            String key = normalizeKey(book.getTitle(), book.getAuthor());
+            String key = BookBatchWriter.dedupKey(book.getTitle(), book.getAuthor());
             combined.put(key, book);
         }
         
         // Add Open Library results that aren't duplicates
         for (Book book : openLibraryResults) {
-            String key = normalizeKey(book.getTitle(), book.getAuthor());
+            String key = BookBatchWriter.dedupKey(book.getTitle(), book.getAuthor());
             if (!combined.containsKey(key)) {
                 combined.put(key, book);
             }
@@ -336,13 +405,54 @@ public class ExternalBookService {
         
         return combined.values().stream().limit(limit).toList();
     }
-    
-    private String normalizeKey(String title, String author) {
-        String t = title != null ? title.toLowerCase().replaceAll("[^a-z0-9]", "") : "";
-        String a = author != null ? author.toLowerCase().replaceAll("[^a-z0-9]", "") : "";
-        return t + "|" + a;
+
+    /**
+     * Drop a provider's results if it misses the search deadline or fails, instead of failing the search.
+     */
+    private Mono<List<Book>> withDeadline(String provider, Mono<List<Book>> call) {
+        return call.timeout(searchDeadline)
+            .onErrorResume(e -> {
+                if (e instanceof TimeoutException) {
+                    meterRegistry.counter("external.api.timeouts", "provider", provider).increment();
+                    log.warn("{} did not answer within {} ms, dropping its results", provider, searchDeadline.toMillis());
+                } else {
+                    log.warn("{} search failed: {}", provider, e.getMessage());
+                }
+                return Mono.just(List.of());
+            });
+    }
+
+    /**
+     * Wait for the provider's request budget before calling it; a 429 empties the budget
+     * so other callers back off too. Cache hits never reach this point.
+     */
+    private <T> Mono<T> rateLimited(String provider, RequestPriority priority, Mono<T> call) {
+        return rateLimiter.acquire(provider, priority)
+            .then(timed(provider, call))
+            .doOnError(WebClientResponseException.TooManyRequests.class, e -> rateLimiter.onThrottled(provider));
     }
 
+    /**
+     * Record per-provider latency, tagged with how the call ended. A call cancelled
+     * by a deadline is recorded as a timeout.
+     */
+    private <T> Mono<T> timed(String provider, Mono<T> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call
+                .doOnSuccess(result -> sample.stop(latencyTimer(provider, "success")))
+                .doOnError(e -> sample.stop(latencyTimer(provider, "error")))
+                .doOnCancel(() -> sample.stop(latencyTimer(provider, "timeout")));
+        });
+    }
+
+    private Timer latencyTimer(String provider, String outcome) {
+        return Timer.builder("external.api.latency")
+            .tag("provider", provider)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+    
     // ============ DTOs for Google Books API ============
     
     @Data
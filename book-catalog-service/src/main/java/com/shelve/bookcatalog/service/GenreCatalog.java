@@ -0,0 +1,327 @@
+package com.shelve.bookcatalog.service;
+
+import com.shelve.bookcatalog.cache.CatalogVersion;
+import com.shelve.bookcatalog.dto.GenreResponse;
+import com.shelve.bookcatalog.entity.Book;
+import com.shelve.bookcatalog.entity.Genre;
+import com.shelve.bookcatalog.entity.GenreAlias;
+import com.shelve.bookcatalog.event.BooksChangedEvent;
+import com.shelve.bookcatalog.event.CatalogReloadedEvent;
+import com.shelve.bookcatalog.repository.BookRepository;
+import com.shelve.bookcatalog.repository.GenreAliasRepository;
+import com.shelve.bookcatalog.repository.GenreCount;
+import com.shelve.bookcatalog.repository.GenreRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The genre dimension, held in memory. Provider categories ("Fiction / Science Fiction / General",
+ * "Detective and mystery stories", ...) are resolved to canonical genres through aliases, and every
+ * stored book carries its genre's id, so genre listings filter on an indexed integer and the genre
+ * list with per-genre counts is answered without touching the books table. Counts are loaded once
+ * at startup and then kept up to date from {@link BooksChangedEvent}s.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GenreCatalog {
+
+    public static final String DEFAULT_GENRE = "General";
+
+    private static final int MAX_NAME_LENGTH = 190;
+
+    // Canonical genres seeded on first start, with the provider categories that map onto them
+    private static final Map<String, List<String>> DEFAULT_ALIASES = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_ALIASES.put("Fiction", List.of("Fiction", "General Fiction", "Literary Fiction", "Novels",
+                "Literature", "Fiction in English", "American fiction", "English fiction"));
+        DEFAULT_ALIASES.put("Classics", List.of("Classics", "Classic Literature"));
+        DEFAULT_ALIASES.put("Science Fiction", List.of("Science Fiction", "Sci-Fi", "SciFi",
+                "Science fiction, American", "Science fiction, English"));
+        DEFAULT_ALIASES.put("Fantasy", List.of("Fantasy", "Fantasy fiction", "Fiction / Fantasy / Epic"));
+        DEFAULT_ALIASES.put("Mystery", List.of("Mystery", "Mystery fiction", "Detective and mystery stories",
+                "Mystery & Detective", "Crime", "Crime fiction"));
+        DEFAULT_ALIASES.put("Thriller", List.of("Thriller", "Thrillers", "Suspense", "Thrillers & Suspense",
+                "Suspense fiction"));
+        DEFAULT_ALIASES.put("Romance", List.of("Romance", "Love stories", "Romance fiction"));
+        DEFAULT_ALIASES.put("Historical Fiction", List.of("Historical Fiction", "Historical", "Historical novels"));
+        DEFAULT_ALIASES.put("Horror", List.of("Horror", "Horror fiction", "Horror tales"));
+        DEFAULT_ALIASES.put("Young Adult", List.of("Young Adult", "Young Adult Fiction", "Juvenile Fiction"));
+        DEFAULT_ALIASES.put("Children's", List.of("Children's", "Juvenile literature", "Children's fiction",
+                "Children's stories"));
+        DEFAULT_ALIASES.put("Biography", List.of("Biography", "Biography & Autobiography", "Autobiography",
+                "Memoir", "Memoirs"));
+        DEFAULT_ALIASES.put("History", List.of("History"));
+        DEFAULT_ALIASES.put("Self-Help", List.of("Self-Help", "Self help", "Personal development",
+                "Self-realization"));
+        DEFAULT_ALIASES.put("Psychology", List.of("Psychology"));
+        DEFAULT_ALIASES.put("Philosophy", List.of("Philosophy"));
+        DEFAULT_ALIASES.put("Science", List.of("Science", "Popular science"));
+        DEFAULT_ALIASES.put("Business", List.of("Business", "Business & Economics", "Economics"));
+        DEFAULT_ALIASES.put("Non-Fiction", List.of("Non-Fiction", "Nonfiction"));
+        DEFAULT_ALIASES.put("Poetry", List.of("Poetry"));
+        DEFAULT_ALIASES.put("Comics", List.of("Comics", "Comics & Graphic Novels", "Graphic novels"));
+        DEFAULT_ALIASES.put("Religion", List.of("Religion"));
+        // Open Library tags its availability as the first subject of many works
+        DEFAULT_ALIASES.put(DEFAULT_GENRE, List.of(DEFAULT_GENRE, "Accessible book", "Protected DAISY",
+                "In library", "Lending library", "Large type books"));
+    }
+
+    private final GenreRepository genreRepository;
+    private final GenreAliasRepository genreAliasRepository;
+    private final BookRepository bookRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final CatalogVersion catalogVersion;
+
+    private final Map<Integer, Genre> genresById = new ConcurrentHashMap<>();
+    private final Map<String, Integer> genreIdsByAlias = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicLong> bookCounts = new ConcurrentHashMap<>();
+
+    private TransactionTemplate newTransaction;
+
+    @PostConstruct
+    void init() {
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        if (genreRepository.count() == 0) {
+            try {
+                seedDefaults();
+            } catch (DataIntegrityViolationException e) {
+                log.info("Default genres were seeded by another instance");
+            }
+        }
+        loadDimension();
+    }
+
+    /**
+     * Assign books stored before the dimension existed, then load the per-genre counts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        List<String> unassigned = bookRepository.findUnassignedGenres();
+        if (!unassigned.isEmpty()) {
+            int updated = 0;
+            for (String raw : unassigned) {
+                Genre genre = resolve(raw);
+                // Bumps updatedAt too, so the books' ETags and incremental exports see the new genre
+                updated += newTransaction.execute(status -> bookRepository.assignGenre(raw, genre.getId(),
+                        genre.getName(), LocalDateTime.now()));
+            }
+            log.info("Assigned {} existing books to genres ({} distinct categories)", updated, unassigned.size());
+        }
+        recount();
+    }
+
+    /**
+     * Point the book at the canonical genre for its category, creating the genre if it is new.
+     */
+    public void assign(Book book) {
+        Genre genre = resolve(book.getGenre());
+        book.setGenre(genre.getName());
+        book.setGenreId(genre.getId());
+    }
+
+    /**
+     * The genre a name or known category refers to, without creating anything.
+     */
+    public Optional<Genre> find(String nameOrAlias) {
+        Integer id = genreIdsByAlias.get(aliasKey(nameOrAlias));
+        return Optional.ofNullable(id).map(genresById::get);
+    }
+
+    public long getBookCount(Integer genreId) {
+        AtomicLong count = bookCounts.get(genreId);
+        return count != null ? count.get() : 0;
+    }
+
+    public long getTotalBookCount() {
+        return bookCounts.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    /**
+     * Names of the genres that have books, alphabetically.
+     */
+    public List<String> getGenreNames() {
+        return getGenres().stream().map(GenreResponse::getName).toList();
+    }
+
+    public List<GenreResponse> getGenres() {
+        return genresById.values().stream()
+                .map(genre -> GenreResponse.builder()
+                        .id(genre.getId())
+                        .name(genre.getName())
+                        .bookCount(getBookCount(genre.getId()))
+                        .build())
+                .filter(genre -> genre.getBookCount() > 0)
+                .sorted(Comparator.comparing(GenreResponse::getName, String.CASE_INSENSITIVE_ORDER))
+                .toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksChanged(BooksChangedEvent event) {
+        if (!event.isCreated()) {
+            return;
+        }
+        for (Book book : event.getBooks()) {
+            if (book.getGenreId() != null) {
+                bookCounts.computeIfAbsent(book.getGenreId(), id -> new AtomicLong()).incrementAndGet();
+            }
+        }
+    }
+
+    @EventListener
+    public void onCatalogReloaded(CatalogReloadedEvent event) {
+        recount();
+    }
+
+    private void recount() {
+        Map<Integer, Long> counts = new HashMap<>();
+        for (GenreCount count : bookRepository.countByGenreId()) {
+            counts.put(count.getGenreId(), count.getBookCount());
+        }
+        bookCounts.keySet().retainAll(counts.keySet());
+        counts.forEach((id, count) -> bookCounts.computeIfAbsent(id, k -> new AtomicLong()).set(count));
+        catalogVersion.bump();
+        log.info("Loaded book counts for {} genres", counts.size());
+    }
+
+    private Genre resolve(String raw) {
+        String key = aliasKey(raw);
+        Integer id = genreIdsByAlias.get(key);
+        if (id != null) {
+            return genresById.get(id);
+        }
+
+        // Hierarchical categories ("Fiction / Science Fiction / General"): the most specific part wins
+        String name = canonicalName(raw);
+        Integer canonicalId = genreIdsByAlias.get(aliasKey(name));
+        Genre genre = canonicalId != null ? genresById.get(canonicalId) : create(name);
+        if (key.isEmpty() || key.equals(aliasKey(name))) {
+            // create() has already stored the genre's own name as an alias
+            return genre;
+        }
+        return addAlias(key, genre);
+    }
+
+    /**
+     * Store a new category alias, so every instance (and this one after a restart) resolves it the
+     * same way. If another instance stored it first, its mapping wins.
+     */
+    private Genre addAlias(String key, Genre genre) {
+        Integer id;
+        try {
+            id = newTransaction.execute(status -> genreAliasRepository.findById(key)
+                    .orElseGet(() -> genreAliasRepository.save(GenreAlias.builder().alias(key).genreId(genre.getId()).build()))
+                    .getGenreId());
+        } catch (DataIntegrityViolationException e) {
+            // Added concurrently by another instance
+            id = genreAliasRepository.findById(key).map(GenreAlias::getGenreId).orElseThrow(() -> e);
+        }
+        if (!genresById.containsKey(id)) {
+            // Mapped to a genre another instance created
+            loadDimension();
+        }
+        Genre mapped = genresById.getOrDefault(id, genre);
+        genreIdsByAlias.put(key, mapped.getId());
+        return mapped;
+    }
+
+    private synchronized Genre create(String name) {
+        Integer existing = genreIdsByAlias.get(aliasKey(name));
+        if (existing != null) {
+            return genresById.get(existing);
+        }
+        try {
+            Genre genre = newTransaction.execute(status -> {
+                Genre saved = genreRepository.save(Genre.builder().name(name).build());
+                genreAliasRepository.save(GenreAlias.builder().alias(aliasKey(name)).genreId(saved.getId()).build());
+                return saved;
+            });
+            register(genre);
+            genreIdsByAlias.put(aliasKey(name), genre.getId());
+            log.info("Added genre '{}'", name);
+            return genre;
+        } catch (DataIntegrityViolationException e) {
+            // Created concurrently by another instance
+            loadDimension();
+            Integer id = genreIdsByAlias.get(aliasKey(name));
+            if (id == null) {
+                throw e;
+            }
+            return genresById.get(id);
+        }
+    }
+
+    private void seedDefaults() {
+        newTransaction.executeWithoutResult(status -> {
+            List<GenreAlias> aliases = new ArrayList<>();
+            DEFAULT_ALIASES.forEach((name, categories) -> {
+                Genre genre = genreRepository.save(Genre.builder().name(name).build());
+                categories.stream().map(GenreCatalog::aliasKey).distinct()
+                        .forEach(alias -> aliases.add(GenreAlias.builder().alias(alias).genreId(genre.getId()).build()));
+            });
+            genreAliasRepository.saveAll(aliases);
+        });
+        log.info("Seeded {} default genres", DEFAULT_ALIASES.size());
+    }
+
+    private void loadDimension() {
+        genreRepository.findAll().forEach(this::register);
+        genreAliasRepository.findAll().forEach(alias -> genreIdsByAlias.put(alias.getAlias(), alias.getGenreId()));
+        log.info("Loaded {} genres with {} aliases", genresById.size(), genreIdsByAlias.size());
+    }
+
+    private void register(Genre genre) {
+        genresById.put(genre.getId(), genre);
+    }
+
+    private static String canonicalName(String raw) {
+        if (raw == null) {
+            return DEFAULT_GENRE;
+        }
+        String name = null;
+        for (String part : raw.split("/")) {
+            String trimmed = part.trim().replaceAll("\\s+", " ");
+            if (!trimmed.isEmpty() && !trimmed.equalsIgnoreCase(DEFAULT_GENRE)) {
+                name = trimmed;
+            }
+        }
+        if (name == null) {
+            return DEFAULT_GENRE;
+        }
+        name = name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name;
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Lowercase words only, with '&' spelled out, so formatting variants share one alias.
+     */
+    static String aliasKey(String category) {
+        if (category == null) {
+            return "";
+        }
+        String key = category.toLowerCase().replace("&", " and ").replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+        return key.length() > 200 ? key.substring(0, 200) : key;
+    }
+}
@@ -0,0 +1,333 @@
+package com.shelve.bookcatalog.service;
+
+import com.shelve.bookcatalog.dto.ImportJobResponse;
+import com.shelve.bookcatalog.entity.Book;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs bulk imports as background jobs so callers get a job id back immediately.
+ * Each job is a small pipeline: fetch workers on the shared import fetch pool take
+ * subjects, query the provider and convert the results, then hand them through a
+ * bounded queue to the job's coordinator, which deduplicates across the whole job and
+ * writes through {@link BookBatchWriter} in chunks. The bounded queue keeps fetchers
+ * from running far ahead of the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportJobService {
+
+    private static final long POLL_MILLIS = 500;
+
+    private final ExternalBookService externalBookService;
+    private final BookBatchWriter bookBatchWriter;
+    @Qualifier("importJobExecutor")
+    private final TaskExecutor importJobExecutor;
+    @Qualifier("importFetchExecutor")
+    private final TaskExecutor importFetchExecutor;
+
+    @Value("${book-import.jobs.fetch-threads:4}")
+    private int fetchWorkersPerJob;
+
+    @Value("${book-import.jobs.stage-queue-capacity:8}")
+    private int stageQueueCapacity;
+
+    @Value("${book-import.jobs.write-batch-size:200}")
+    private int writeBatchSize;
+
+    // Finished jobs stay pollable for this long
+    @Value("${book-import.jobs.retention:PT1H}")
+    private Duration retention;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobResponse submit(List<String> subjects, int countPerSubject) {
+        expireOldJobs();
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), subjects, countPerSubject);
+        jobs.put(job.id, job);
+        try {
+            importJobExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            log.warn("Import job queue full, rejecting job {}", job.id);
+            job.finish("FAILED", "Too many import jobs queued, try again later");
+        }
+        log.info("Submitted import job {} for {} subjects ({} books each)",
+                job.id, subjects.size(), countPerSubject);
+        return toResponse(job);
+    }
+
+    public Optional<ImportJobResponse> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(this::toResponse);
+    }
+
+    public List<ImportJobResponse> getJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((ImportJob job) -> job.submittedAt).reversed())
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /**
+     * Stop a job. Subjects already written stay imported; batches still in flight are dropped.
+     */
+    public Optional<ImportJobResponse> cancel(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.cancelled = true;
+        if ("QUEUED".equals(job.status)) {
+            job.finish("CANCELLED", null);
+        }
+        log.info("Cancellation requested for import job {}", jobId);
+        return Optional.of(toResponse(job));
+    }
+
+    private void run(ImportJob job) {
+        if (job.cancelled) {
+            job.finish("CANCELLED", null);
+            return;
+        }
+        job.start();
+
+        Queue<SubjectProgress> remaining = new ConcurrentLinkedQueue<>(job.subjects);
+        BlockingQueue<FetchedSubject> fetched = new ArrayBlockingQueue<>(stageQueueCapacity);
+        int workers = Math.min(fetchWorkersPerJob, job.subjects.size());
+        int started = 0;
+        for (int i = 0; i < workers; i++) {
+            try {
+                importFetchExecutor.execute(() -> fetchSubjects(job, remaining, fetched));
+                started++;
+            } catch (TaskRejectedException e) {
+                break;
+            }
+        }
+        if (started == 0 && !job.subjects.isEmpty()) {
+            job.finish("FAILED", "No import fetch workers available, try again later");
+            return;
+        }
+
+        try {
+            writeFetched(job, fetched);
+            job.finish(job.cancelled ? "CANCELLED" : "COMPLETED", null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.cancelled = true;
+            job.finish("CANCELLED", null);
+        } catch (Exception e) {
+            log.error("Import job {} failed: {}", job.id, e.getMessage(), e);
+            // Stops the fetch workers too
+            job.cancelled = true;
+            job.finish("FAILED", e.getMessage());
+        }
+        log.info("Import job {} {}: {} books imported from {} subjects",
+                job.id, job.status.toLowerCase(), job.importedCount(), job.subjects.size());
+    }
+
+    /**
+     * Fetch/convert stage: take subjects until none are left or the job is cancelled.
+     */
+    private void fetchSubjects(ImportJob job, Queue<SubjectProgress> remaining,
+                               BlockingQueue<FetchedSubject> fetched) {
+        SubjectProgress subject;
+        while (!job.cancelled && (subject = remaining.poll()) != null) {
+            subject.status = "FETCHING";
+            FetchedSubject result;
+            try {
+                List<Book> books = externalBookService.fetchBySubject(subject.subject, job.countPerSubject);
+                subject.fetchedCount = books.size();
+                subject.status = "FETCHED";
+                result = new FetchedSubject(subject, books);
+            } catch (Exception e) {
+                log.warn("Import job {} failed to fetch subject '{}': {}", job.id, subject.subject, e.getMessage());
+                subject.fail(e.getMessage());
+                result = new FetchedSubject(subject, List.of());
+            }
+
+            try {
+                while (!fetched.offer(result, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (job.cancelled) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Dedup/write stage, run by the job coordinator. Books are deduplicated across all of the
+     * job's subjects and written once enough have accumulated, or when the last subject arrives.
+     */
+    private void writeFetched(ImportJob job, BlockingQueue<FetchedSubject> fetched) throws InterruptedException {
+        Set<String> seenIsbns = new HashSet<>();
+        Set<String> seenKeys = new HashSet<>();
+        Map<Book, SubjectProgress> pending = new IdentityHashMap<>();
+        List<SubjectProgress> awaitingWrite = new ArrayList<>();
+        int received = 0;
+
+        while (received < job.subjects.size() && !job.cancelled) {
+            FetchedSubject next = fetched.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (next == null) {
+                continue;
+            }
+            received++;
+            for (Book book : next.books) {
+                if (book.getTitle() == null) {
+                    continue;
+                }
+                if (book.getIsbn() != null && !seenIsbns.add(book.getIsbn())) {
+                    continue;
+                }
+                if (seenKeys.add(BookBatchWriter.dedupKey(book.getTitle(), book.getAuthor()))) {
+                    pending.put(book, next.subject);
+                }
+            }
+            if (!"FAILED".equals(next.subject.status)) {
+                awaitingWrite.add(next.subject);
+            }
+
+            if (pending.size() >= writeBatchSize || received == job.subjects.size()) {
+                write(pending, awaitingWrite);
+            }
+        }
+    }
+
+    private void write(Map<Book, SubjectProgress> pending, List<SubjectProgress> awaitingWrite) {
+        if (!pending.isEmpty()) {
+            // saveAll persists the given instances, so saved books map straight back to their subject
+            for (Book saved : bookBatchWriter.saveNewBooks(new ArrayList<>(pending.keySet()))) {
+                SubjectProgress subject = pending.get(saved);
+                if (subject != null) {
+                    subject.importedCount++;
+                }
+            }
+            pending.clear();
+        }
+        awaitingWrite.forEach(subject -> subject.status = "COMPLETED");
+        awaitingWrite.clear();
+    }
+
+    private void expireOldJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.completedAt != null && job.completedAt.isBefore(cutoff));
+    }
+
+    private ImportJobResponse toResponse(ImportJob job) {
+        List<ImportJobResponse.SubjectProgress> subjects = job.subjects.stream()
+                .map(s -> ImportJobResponse.SubjectProgress.builder()
+                        .subject(s.subject)
+                        .status(s.status)
+                        .fetchedCount(s.fetchedCount)
+                        .importedCount(s.importedCount)
+                        .error(s.error)
+                        .build())
+                .toList();
+        return ImportJobResponse.builder()
+                .jobId(job.id)
+                .status(job.status)
+                .countPerSubject(job.countPerSubject)
+                .totalSubjects(subjects.size())
+                .finishedSubjects((int) subjects.stream().filter(s -> isFinished(s.getStatus())).count())
+                .fetchedCount(subjects.stream().mapToInt(ImportJobResponse.SubjectProgress::getFetchedCount).sum())
+                .importedCount(subjects.stream().mapToInt(ImportJobResponse.SubjectProgress::getImportedCount).sum())
+                .error(job.error)
+                .submittedAt(job.submittedAt)
+                .startedAt(job.startedAt)
+                .completedAt(job.completedAt)
+                .subjects(subjects)
+                .build();
+    }
+
+    private static boolean isFinished(String status) {
+        return "COMPLETED".equals(status) || "FAILED".equals(status) || "CANCELLED".equals(status);
+    }
+
+    private static class ImportJob {
+        private final String id;
+        private final List<SubjectProgress> subjects;
+        private final int countPerSubject;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private volatile String status = "QUEUED";
+        private volatile boolean cancelled;
+        private volatile String error;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime completedAt;
+
+        ImportJob(String id, List<String> subjects, int countPerSubject) {
+            this.id = id;
+            this.subjects = subjects.stream().map(SubjectProgress::new).toList();
+            this.countPerSubject = countPerSubject;
+        }
+
+        void start() {
+            status = "RUNNING";
+            startedAt = LocalDateTime.now();
+        }
+
+        synchronized void finish(String finalStatus, String message) {
+            if (completedAt != null) {
+                return;
+            }
+            status = finalStatus;
+            error = message;
+            completedAt = LocalDateTime.now();
+            if (!"COMPLETED".equals(finalStatus)) {
+                subjects.stream()
+                        .filter(s -> !isFinished(s.status))
+                        .forEach(s -> s.status = "CANCELLED");
+            }
+        }
+
+        int importedCount() {
+            return subjects.stream().mapToInt(s -> s.importedCount).sum();
+        }
+    }
+
+    private static class SubjectProgress {
+        private final String subject;
+        private volatile String status = "PENDING";
+        private volatile int fetchedCount;
+        private volatile int importedCount;
+        private volatile String error;
+
+        SubjectProgress(String subject) {
+            this.subject = subject;
+        }
+
+        void fail(String message) {
+            status = "FAILED";
+            error = message;
+        }
+    }
+
+    private record FetchedSubject(SubjectProgress subject, List<Book> books) {
+    }
+}
@@ -0,0 +1,144 @@
+package com.shelve.bookcatalog.service;
+
+import com.shelve.bookcatalog.dto.EnrichmentStatusResponse;
+import com.shelve.bookcatalog.entity.Book;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Backfills the local catalog from external APIs when a search comes up short.
+ * Searches hand the query off here and return their local results right away;
+ * the external lookup and persistence run on a background executor, and the
+ * returned token can be polled (or the client can simply re-query) for the outcome.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchEnrichmentService {
+
+    private final ExternalBookService externalBookService;
+    private final BookBatchWriter bookBatchWriter;
+    @Qualifier("searchEnrichmentExecutor")
+    private final TaskExecutor searchEnrichmentExecutor;
+
+    // A query enriched within this window is not sent to the external APIs again. Failed or
+    // rejected enrichments don't count: the next search for the query retries
+    @Value("${book-search.enrichment.cooldown:PT5M}")
+    private Duration cooldown;
+
+    private final Map<String, Enrichment> enrichmentsByToken = new ConcurrentHashMap<>();
+    private final Map<String, Enrichment> enrichmentsByQuery = new ConcurrentHashMap<>();
+
+    /**
+     * Schedule a background enrichment for the query, reusing a pending or recent one if present.
+     *
+     * @return the token to poll for the enrichment status
+     */
+    public String submit(String query, int limit) {
+        expireOldEnrichments();
+
+        String key = normalizeQuery(query);
+        Enrichment enrichment = enrichmentsByQuery.computeIfAbsent(key, k -> {
+            Enrichment created = new Enrichment(UUID.randomUUID().toString(), k, query);
+            enrichmentsByToken.put(created.token, created);
+            try {
+                searchEnrichmentExecutor.execute(() -> run(created, limit));
+            } catch (TaskRejectedException e) {
+                log.warn("Search enrichment queue full, skipping external lookup for: {}", query);
+                created.fail();
+            }
+            return created;
+        });
+        if ("FAILED".equals(enrichment.status)) {
+            enrichmentsByQuery.remove(key, enrichment);
+        }
+        return enrichment.token;
+    }
+
+    public Optional<EnrichmentStatusResponse> getStatus(String token) {
+        Enrichment enrichment = enrichmentsByToken.get(token);
+        if (enrichment == null) {
+            return Optional.empty();
+        }
+        return Optional.of(EnrichmentStatusResponse.builder()
+                .token(enrichment.token)
+                .query(enrichment.query)
+                .status(enrichment.status)
+                .importedCount(enrichment.importedCount)
+                .submittedAt(enrichment.submittedAt)
+                .completedAt(enrichment.completedAt)
+                .build());
+    }
+
+    /**
+     * Query the external APIs and persist the books not already in the catalog.
+     *
+     * @return the newly saved books
+     */
+    public List<Book> fetchAndPersist(String query, int limit) {
+        List<Book> externalBooks = externalBookService.searchExternalApis(query, limit);
+        return bookBatchWriter.saveNewBooks(externalBooks);
+    }
+
+    private void run(Enrichment enrichment, int limit) {
+        try {
+            List<Book> saved = fetchAndPersist(enrichment.query, limit);
+            enrichment.complete(saved.size());
+            log.info("Enriched catalog with {} books for query: {}", saved.size(), enrichment.query);
+        } catch (Exception e) {
+            log.warn("External API enrichment failed for '{}': {}", enrichment.query, e.getMessage());
+            enrichment.fail();
+            enrichmentsByQuery.remove(enrichment.key, enrichment);
+        }
+    }
+
+    private void expireOldEnrichments() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(cooldown);
+        enrichmentsByQuery.values().removeIf(e -> e.completedAt != null && e.completedAt.isBefore(cutoff));
+        enrichmentsByToken.values().removeIf(e -> e.completedAt != null && e.completedAt.isBefore(cutoff));
+    }
+
+    private String normalizeQuery(String query) {
+        return query.trim().toLowerCase().replaceAll("\\s+", " ");
+    }
+
+    private static class Enrichment {
+        private final String token;
+        private final String key;
+        private final String query;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private volatile String status = "PENDING";
+        private volatile int importedCount;
+        private volatile LocalDateTime completedAt;
+
+        Enrichment(String token, String key, String query) {
+            this.token = token;
+            this.key = key;
+            this.query = query;
+        }
+
+        void complete(int imported) {
+            importedCount = imported;
+            status = "COMPLETED";
+            completedAt = LocalDateTime.now();
+        }
+
+        void fail() {
+            status = "FAILED";
+            completedAt = LocalDateTime.now();
+        }
+    }
+}
@@ -1,5 +1,5 @@
 import api from './client';
-import { Book, PagedResponse } from '../types';
+import { Book, CursorPagedResponse, PagedResponse } from '../types';
 
 export const bookApi = {
   // Alias methods for consistency
@@ -58,6 +58,22 @@ export const bookApi = {
     return response.data;
   },
 
+  // Cursor-paged variants for infinite scroll: pass back nextCursor, deep pages cost the same as the first
+  scrollTopRated: async (cursor?: string, size = 20): Promise<CursorPagedResponse<Book>> => {
+    const response = await api.get('/books/top-rated/scroll', { params: { cursor, size } });
+    return response.data;
+  },
+
+  scrollRecentlyAdded: async (cursor?: string, size = 20): Promise<CursorPagedResponse<Book>> => {
+    const response = await api.get('/books/recent/scroll', { params: { cursor, size } });
+    return response.data;
+  },
+
+  scrollByGenre: async (genre: string, cursor?: string, size = 20): Promise<CursorPagedResponse<Book>> => {
+    const response = await api.get(`/books/genre/${genre}/scroll`, { params: { cursor, size } });
+    return response.data;
+  },
+
   getBooksByIds: async (ids: string[]): Promise<Book[]> => {
     const response = await api.get('/books/batch', { params: { ids: ids.join(',') } });
     return response.data;
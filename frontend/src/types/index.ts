@@ -41,6 +41,15 @@ export interface PagedResponse<T> {
   totalElements: number;
   totalPages: number;
   last: boolean;
+  enrichmentToken?: string;
+}
+
+export interface CursorPagedResponse<T> {
+  content: T[];
+  size: number;
+  hasNext: boolean;
+  nextCursor?: string;
+  totalElements?: number;
 }
 
 export type ShelfStatus = 'READING' | 'READ' | 'TO_READ';
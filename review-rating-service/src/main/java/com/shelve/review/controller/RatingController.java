@@ -63,4 +63,11 @@ public class RatingController {
     public ResponseEntity<Double> getAverageRating(@PathVariable String bookId) {
         return ResponseEntity.ok(ratingService.getAverageRating(bookId));
     }
+
+    @GetMapping("/aggregates")
+    public ResponseEntity<List<BookRatingAggregateResponse>> getBookAggregates(
+            @RequestParam String from,
+            @RequestParam String to) {
+        return ResponseEntity.ok(ratingService.getBookAggregates(from, to));
+    }
 }
@@ -0,0 +1,16 @@
+package com.shelve.review.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookRatingAggregateResponse {
+    private String bookId;
+    private long ratingSum;
+    private long ratingCount;
+}
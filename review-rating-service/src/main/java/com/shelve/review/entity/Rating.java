@@ -12,6 +12,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "ratings", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"user_id", "book_id"})
+}, indexes = {
+    @Index(name = "idx_ratings_book_id", columnList = "book_id")
 })
 @Data
 @Builder
@@ -16,6 +16,7 @@ public class RatingEvent implements Serializable {
     private String userId;
     private String bookId;
     private Integer score;
+    private Integer previousScore; // set on UPDATED, so consumers can apply the change as a delta
     private boolean liked;
     private String eventType; // CREATED, UPDATED
     private LocalDateTime timestamp;
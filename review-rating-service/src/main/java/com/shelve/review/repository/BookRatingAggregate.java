@@ -0,0 +1,12 @@
+package com.shelve.review.repository;
+
+import java.util.UUID;
+
+/**
+ * Per-book rating totals, as consumed by the book catalog.
+ */
+public interface BookRatingAggregate {
+    UUID getBookId();
+    long getRatingSum();
+    long getRatingCount();
+}
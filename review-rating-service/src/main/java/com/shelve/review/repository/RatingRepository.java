@@ -28,4 +28,8 @@ public interface RatingRepository extends JpaRepository<Rating, UUID> {
     Integer getRatingsCountByBookId(@Param("bookId") UUID bookId);
     
     boolean existsByUserIdAndBookId(UUID userId, UUID bookId);
+    
+    @Query("SELECT r.bookId AS bookId, SUM(r.score) AS ratingSum, COUNT(r) AS ratingCount FROM Rating r " +
+           "WHERE r.bookId BETWEEN :from AND :to GROUP BY r.bookId")
+    List<BookRatingAggregate> aggregateByBookIdBetween(@Param("from") UUID from, @Param("to") UUID to);
 }
@@ -41,7 +41,7 @@ public class RatingService {
         rating = ratingRepository.save(rating);
 
         // Publish event for recommendation service
-        publishRatingEvent(rating, "CREATED");
+        publishRatingEvent(rating, "CREATED", null);
 
         return mapToResponse(rating);
     }
@@ -54,12 +54,13 @@ public class RatingService {
         Rating rating = ratingRepository.findByUserIdAndBookId(userUUID, bookUUID)
                 .orElseThrow(() -> new RatingNotFoundException("Rating not found"));
 
+        Integer previousScore = rating.getScore();
         rating.setScore(newScore);
         rating.setLiked(newScore >= 4);
         rating = ratingRepository.save(rating);
 
         // Publish event for recommendation service
-        publishRatingEvent(rating, "UPDATED");
+        publishRatingEvent(rating, "UPDATED", previousScore);
 
         return mapToResponse(rating);
     }
@@ -82,7 +83,7 @@ public class RatingService {
                 .collect(Collectors.toList());
 
         // Publish events for all new ratings
-        ratings.forEach(rating -> publishRatingEvent(rating, "CREATED"));
+        ratings.forEach(rating -> publishRatingEvent(rating, "CREATED", null));
 
         return ratings.stream()
                 .map(this::mapToResponse)
@@ -117,11 +118,25 @@ public class RatingService {
         return ratingRepository.getAverageRatingByBookId(UUID.fromString(bookId));
     }
 
-    private void publishRatingEvent(Rating rating, String eventType) {
+    /**
+     * Rating sum and count of every rated book whose id falls in [from, to], for catalog rebuilds.
+     */
+    public List<BookRatingAggregateResponse> getBookAggregates(String from, String to) {
+        return ratingRepository.aggregateByBookIdBetween(UUID.fromString(from), UUID.fromString(to)).stream()
+                .map(aggregate -> BookRatingAggregateResponse.builder()
+                        .bookId(aggregate.getBookId().toString())
+                        .ratingSum(aggregate.getRatingSum())
+                        .ratingCount(aggregate.getRatingCount())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private void publishRatingEvent(Rating rating, String eventType, Integer previousScore) {
         RatingEvent event = RatingEvent.builder()
                 .userId(rating.getUserId().toString())
                 .bookId(rating.getBookId().toString())
                 .score(rating.getScore())
+                .previousScore(previousScore)
                 .liked(rating.isLiked())
                 .eventType(eventType)
                 .timestamp(LocalDateTime.now())
@@ -1,17 +1,18 @@
 package com.shelve.shelf.client;
 
-import com.shelve.shelf.dto.BookResponse;
+import com.shelve.shelf.dto.BookLookupEntry;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.springframework.cloud.openfeign.FeignClient;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
 import java.util.List;
 
 @FeignClient(name = "book-catalog-service", fallback = BookClientFallback.class)
 public interface BookClient {
-    
-    @GetMapping("/api/books/batch")
+
+    // POST so whole libraries fit in one call; entries come back in request order
+    @PostMapping("/api/books/batch")
     @CircuitBreaker(name = "bookCatalogService")
-    List<BookResponse> getBooksByIds(@RequestParam List<String> ids);
+    List<BookLookupEntry> lookupBooks(@RequestBody List<String> ids);
 }
@@ -1,6 +1,6 @@
 package com.shelve.shelf.client;
 
-import com.shelve.shelf.dto.BookResponse;
+import com.shelve.shelf.dto.BookLookupEntry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -16,7 +16,7 @@ import java.util.List;
 public class BookClientFallback implements BookClient {
 
     @Override
-    public List<BookResponse> getBooksByIds(List<String> ids) {
+    public List<BookLookupEntry> lookupBooks(List<String> ids) {
         log.warn("Circuit breaker fallback: book-catalog-service unavailable. Returning empty list for {} book IDs", 
                 ids != null ? ids.size() : 0);
         return Collections.emptyList();
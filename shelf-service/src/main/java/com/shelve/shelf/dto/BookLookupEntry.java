@@ -0,0 +1,19 @@
+package com.shelve.shelf.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of a bulk book lookup; book is null when found is false.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookLookupEntry {
+    private String id;
+    private boolean found;
+    private BookResponse book;
+}
@@ -1,6 +1,7 @@
 package com.shelve.shelf.service;
 
 import com.shelve.shelf.client.BookClient;
+import com.shelve.shelf.dto.BookLookupEntry;
 import com.shelve.shelf.dto.BookResponse;
 import com.shelve.shelf.dto.ShelfItemResponse;
 import com.shelve.shelf.dto.ShelvesResponse;
@@ -39,23 +40,16 @@ public class ShelfService {
                 .collect(Collectors.toList());
         
         // Fetch book details
-        Map<String, BookResponse> booksMap = new HashMap<>();
-        if (!bookIds.isEmpty()) {
-            List<BookResponse> books = bookClient.getBooksByIds(bookIds);
-            booksMap = books.stream()
-                    .collect(Collectors.toMap(BookResponse::getId, b -> b));
-        }
+        Map<String, BookResponse> booksMap = fetchBooks(bookIds);
         
         // Group by shelf type
         Map<ShelfType, List<ShelfItem>> groupedItems = allItems.stream()
                 .collect(Collectors.groupingBy(ShelfItem::getShelfType));
         
-        Map<String, BookResponse> finalBooksMap = booksMap;
-        
         return ShelvesResponse.builder()
-                .reading(mapToResponses(groupedItems.getOrDefault(ShelfType.READING, List.of()), finalBooksMap))
-                .read(mapToResponses(groupedItems.getOrDefault(ShelfType.READ, List.of()), finalBooksMap))
-                .toRead(mapToResponses(groupedItems.getOrDefault(ShelfType.TO_READ, List.of()), finalBooksMap))
+                .reading(mapToResponses(groupedItems.getOrDefault(ShelfType.READING, List.of()), booksMap))
+                .read(mapToResponses(groupedItems.getOrDefault(ShelfType.READ, List.of()), booksMap))
+                .toRead(mapToResponses(groupedItems.getOrDefault(ShelfType.TO_READ, List.of()), booksMap))
                 .stats(ShelvesResponse.ShelfStats.builder()
                         .readingCount(shelfItemRepository.countByUserIdAndShelfType(userUUID, ShelfType.READING))
                         .readCount(shelfItemRepository.countByUserIdAndShelfType(userUUID, ShelfType.READ))
@@ -72,14 +66,7 @@ public class ShelfService {
                 .map(item -> item.getBookId().toString())
                 .collect(Collectors.toList());
         
-        Map<String, BookResponse> booksMap = new HashMap<>();
-        if (!bookIds.isEmpty()) {
-            List<BookResponse> books = bookClient.getBooksByIds(bookIds);
-            booksMap = books.stream()
-                    .collect(Collectors.toMap(BookResponse::getId, b -> b));
-        }
-        
-        return mapToResponses(items, booksMap);
+        return mapToResponses(items, fetchBooks(bookIds));
     }
 
     @Transactional
@@ -111,8 +98,7 @@ public class ShelfService {
         publishShelfEvent(userId, bookId, shelfType.name(), "ADDED", null);
         
         // Fetch book details
-        List<BookResponse> books = bookClient.getBooksByIds(List.of(bookId));
-        BookResponse book = books.isEmpty() ? null : books.get(0);
+        BookResponse book = fetchBooks(List.of(bookId)).get(bookId);
         
         return mapToResponse(item, book);
     }
@@ -141,8 +127,7 @@ public class ShelfService {
         publishShelfEvent(userId, bookId, targetShelf.name(), "MOVED", previousShelf.name());
         
         // Fetch book details
-        List<BookResponse> books = bookClient.getBooksByIds(List.of(bookId));
-        BookResponse book = books.isEmpty() ? null : books.get(0);
+        BookResponse book = fetchBooks(List.of(bookId)).get(bookId);
         
         return mapToResponse(item, book);
     }
@@ -171,6 +156,20 @@ public class ShelfService {
                 });
     }
 
+    // Book details by id; books missing from the catalog are left out
+    private Map<String, BookResponse> fetchBooks(List<String> bookIds) {
+        Map<String, BookResponse> books = new HashMap<>();
+        if (bookIds.isEmpty()) {
+            return books;
+        }
+        for (BookLookupEntry entry : bookClient.lookupBooks(bookIds)) {
+            if (entry.isFound()) {
+                books.put(entry.getId(), entry.getBook());
+            }
+        }
+        return books;
+    }
+
     private List<ShelfItemResponse> mapToResponses(List<ShelfItem> items, Map<String, BookResponse> booksMap) {
         return items.stream()
                 .map(item -> mapToResponse(item, booksMap.get(item.getBookId().toString())))